@@ -0,0 +1,105 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+user-036 키 여러 개 조회: 키마다 한 번씩 vs 일괄
+    - byIdLoop / findAllByIds
+    - byUsernameLoop / findAllByUsernames
+    호출마다 새 read-only 트랜잭션이라 영속성 컨텍스트는 비어 있다. (1차 캐시에 맞는 경우는 빼고 잰다)
+    ./gradlew jmhBatchLookup
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchLookupBenchmark {
+
+    private static final int MEMBERS = 20_000;
+
+    @Param({"10", "100", "1000"})
+    int keys;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    TransactionTemplate readOnly;
+    List<Long> ids;
+    List<String> usernames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("batchLookup");
+        List<Long> memberIds = BenchmarkApplication.seed(context, 10, MEMBERS);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        // 테이블 전체에 고르게 흩어진 키
+        ids = new ArrayList<>(keys);
+        usernames = new ArrayList<>(keys);
+        int step = MEMBERS / keys;
+        for (int i = 0; i < keys; i++) {
+            ids.add(memberIds.get(i * step));
+            usernames.add("member" + (i * step));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> byIdLoop() {
+        return readOnly.execute(status -> {
+            List<Member> result = new ArrayList<>(keys);
+            for (Long id : ids) {
+                memberJpaRepository.findById(id).ifPresent(result::add);
+            }
+            return result;
+        });
+    }
+
+    @Benchmark
+    public List<Member> findAllByIds() {
+        return readOnly.execute(status -> memberJpaRepository.findAllByIds(ids));
+    }
+
+    @Benchmark
+    public List<Member> byUsernameLoop() {
+        return readOnly.execute(status -> {
+            List<Member> result = new ArrayList<>(keys);
+            for (String username : usernames) {
+                result.addAll(memberJpaRepository.findByUsername_Querydsl(username));
+            }
+            return result;
+        });
+    }
+
+    @Benchmark
+    public List<Member> findAllByUsernames() {
+        return readOnly.execute(status -> memberJpaRepository.findAllByUsernames(usernames));
+    }
+}
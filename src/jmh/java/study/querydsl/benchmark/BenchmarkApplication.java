@@ -0,0 +1,82 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/*
+JMH 벤치마크용 애플리케이션 기동 / 데이터 적재
+    - 벤치마크마다 jdbc:h2:mem:<name> 에 띄운다. (H2 TCP 서버나 테스트 DB 없이 돈다)
+    - 웹 서버는 띄우지 않고, local 프로파일(InitMember 샘플 데이터)도 켜지 않는다.
+    - SQL 로그, p6spy 는 끈다. (로그 쓰는 시간이 측정값에 섞이지 않게)
+    - properties 는 "key=value" 형태로 덧붙인다. (명령행 인자로 넘기므로 application.yml 보다 우선, 위의 기본값도 덮어쓴다)
+*/
+public final class BenchmarkApplication {
+
+    private static final int SEED_BATCH = 1000;
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String name, String... properties) {
+        Map<String, String> settings = new LinkedHashMap<>();
+        Stream.concat(Stream.of(
+                        "spring.profiles.active=benchmark",
+                        "spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "spring.jpa.properties.hibernate.use_sql_comments=false",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "decorator.datasource.enabled=false"), Stream.of(properties))
+                .forEach(property -> {
+                    int eq = property.indexOf('=');
+                    settings.put(property.substring(0, eq), property.substring(eq + 1));   // 같은 키는 뒤의 값으로 (datasource.url 등)
+                });
+        String[] args = settings.entrySet().stream()
+                .map(setting -> "--" + setting.getKey() + "=" + setting.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+    }
+
+    /* teams 개 팀에 members 명을 돌아가며 넣는다. (username = member<i>, age = i % 100). 넣은 member id 를 순서대로 돌려준다. */
+    public static List<Long> seed(ConfigurableApplicationContext context, int teams, int members) {
+        EntityManager em = context.getBean(EntityManager.class);
+        TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+        List<Long> teamIds = tx.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < teams; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                ids.add(team.getId());
+            }
+            return ids;
+        });
+        List<Long> memberIds = new ArrayList<>(members);
+        for (int from = 0; from < members; from += SEED_BATCH) {
+            int start = from;
+            tx.executeWithoutResult(status -> {
+                for (int i = start; i < Math.min(members, start + SEED_BATCH); i++) {
+                    Team team = teams == 0 ? null : em.getReference(Team.class, teamIds.get(i % teams));
+                    Member member = new Member("member" + i, i % 100, team);
+                    em.persist(member);
+                    memberIds.add(member.getId());
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+        return memberIds;
+    }
+}
@@ -0,0 +1,83 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+user-044 teamName 필터 / 정렬: team 조인 vs member.team_name 복사본
+    denormalized=false 는 team 조인 + team.name, true 는 querydsl.search.denormalized-team-name=true (조인 없음)
+    - filterByTeamName : teamName=team7 (100 팀 중 하나) 페이지 + count
+    - sortByTeamName   : 필터 없이 teamName 정렬 첫 페이지 (slice, count 없음)
+    ./gradlew jmhDenormalizedTeamName
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DenormalizedTeamNameBenchmark {
+
+    @Param({"false", "true"})
+    boolean denormalized;
+
+    @Param({"100000"})
+    int members;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberSearchCondition byTeamName;
+    MemberSearchCondition all;
+    Pageable firstPage;
+    Pageable firstPageByTeamName;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("denormalizedTeamName",
+                "querydsl.search.denormalized-team-name=" + denormalized);
+        BenchmarkApplication.seed(context, 100, members);
+        memberRepository = context.getBean(MemberRepository.class);
+        byTeamName = new MemberSearchCondition();
+        byTeamName.setTeamName("team7");
+        all = new MemberSearchCondition();
+        firstPage = PageRequest.of(0, 20);
+        firstPageByTeamName = PageRequest.of(0, 20, Sort.by("teamName"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> filterByTeamName() {
+        return memberRepository.searchPageSimple(byTeamName, firstPage);
+    }
+
+    @Benchmark
+    public Slice<MemberTeamDto> sortByTeamName() {
+        return memberRepository.searchSlice(all, firstPageByTeamName);
+    }
+}
@@ -0,0 +1,114 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.dto.projection.DtoProjections;
+
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+user-027 DTO projection 행 변환 비용 (DB 없이 newInstance 만)
+    - constructor : Projections.constructor (리플렉션) / QMemberTeamDto (@QueryProjection) / DtoProjections.constructor (MethodHandle)
+    - bean        : Projections.bean (리플렉션 setter) / DtoProjections.bean (LambdaMetafactory setter)
+    - *PerQuery   : 쿼리마다 projection 을 새로 만드는 경우 (DtoProjections 는 캐시에서 꺼낸다)
+    ./gradlew jmhDtoProjection
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoProjectionBenchmark {
+
+    private static final int ROWS = 1000;
+
+    FactoryExpression<MemberTeamDto> querydslConstructor;
+    FactoryExpression<MemberTeamDto> queryProjection;
+    FactoryExpression<MemberTeamDto> cachedConstructor;
+    FactoryExpression<UserDto> querydslBean;
+    FactoryExpression<UserDto> cachedBean;
+    Object[][] memberTeamRows;
+    Object[][] userRows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        querydslConstructor = Projections.constructor(MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name);
+        queryProjection = new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name);
+        cachedConstructor = DtoProjections.constructor(MemberTeamDto.class, member.id, member.username, member.age, team.id, team.name);
+        querydslBean = Projections.bean(UserDto.class, member.username.as("name"), member.age);
+        cachedBean = DtoProjections.bean(UserDto.class, member.username.as("name"), member.age);
+
+        memberTeamRows = new Object[ROWS][];
+        userRows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            memberTeamRows[i] = new Object[]{(long) i, "member" + i, i % 100, (long) (i % 10), "team" + (i % 10)};
+            userRows[i] = new Object[]{"member" + i, i % 100};
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void constructorQuerydsl(Blackhole bh) {
+        rows(querydslConstructor, memberTeamRows, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void constructorQueryProjection(Blackhole bh) {
+        rows(queryProjection, memberTeamRows, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void constructorDtoProjections(Blackhole bh) {
+        rows(cachedConstructor, memberTeamRows, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void beanQuerydsl(Blackhole bh) {
+        rows(querydslBean, userRows, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void beanDtoProjections(Blackhole bh) {
+        rows(cachedBean, userRows, bh);
+    }
+
+    @Benchmark
+    public UserDto beanQuerydslPerQuery() {
+        return Projections.bean(UserDto.class, member.username.as("name"), member.age).newInstance(userRows[0]);
+    }
+
+    @Benchmark
+    public UserDto beanDtoProjectionsPerQuery() {
+        return DtoProjections.bean(UserDto.class, member.username.as("name"), member.age).newInstance(userRows[0]);
+    }
+
+    private static void rows(FactoryExpression<?> projection, Object[][] rows, Blackhole bh) {
+        for (Object[] row : rows) {
+            bh.consume(projection.newInstance(row));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+user-038 id 생성 방식별 insert 비용 (한 트랜잭션에 100 건 persist + flush, 건당 시간)
+    - sequence : pooled 모드, block-size 1 (insert 마다 시퀀스 호출)
+    - pooled   : pooled-lo, block-size 50
+    - client   : TimeOrderedIdGenerator (시퀀스 호출 없음)
+    jdbc:h2:mem 이라 시퀀스 왕복이 네트워크 DB 보다 싸다. 차이는 실제 DB 에서 더 벌어진다.
+    ./gradlew jmhIdGeneration
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGenerationBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"sequence", "pooled", "client"})
+    String ids;
+
+    ConfigurableApplicationContext context;
+    EntityManager em;
+    TransactionTemplate tx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("idGeneration",
+                "spring.jpa.properties.querydsl.id.mode=" + (ids.equals("client") ? "client" : "pooled"),
+                "spring.jpa.properties.querydsl.id.block-size=" + (ids.equals("sequence") ? 1 : 50),
+                "spring.jpa.properties.querydsl.id.node=1");
+        em = context.getBean(EntityManager.class);
+        tx = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void persist() {
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < BATCH; i++) {
+                em.persist(new Member("id" + i, i));
+            }
+            em.flush();
+        });
+    }
+}
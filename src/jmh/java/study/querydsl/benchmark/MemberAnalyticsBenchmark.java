@@ -0,0 +1,127 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberAgeStatsDto;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.QMember;
+import study.querydsl.repository.MemberAnalyticsRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.querydsl.jpa.JPAExpressions.select;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+user-045 상관 서브쿼리(Querydsl-JPA) vs 윈도우 함수(MemberAnalyticsRepository), 같은 결과를 내는 쿼리끼리
+    - averageAge : 행마다 팀 평균 / 전체 평균 서브쿼리 vs avg() over (...)
+    - oldest     : age = (팀별 max(age)) vs rank() = 1
+    - topN       : 나보다 앞선 팀원 수 < n vs row_number() <= n
+    ./gradlew jmhMemberAnalytics
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberAnalyticsBenchmark {
+
+    private static final int TOP_N = 3;
+
+    @Param({"10000"})
+    int members;
+
+    @Param({"100"})
+    int teams;
+
+    ConfigurableApplicationContext context;
+    JPAQueryFactory queryFactory;
+    MemberAnalyticsRepository analyticsRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("memberAnalytics");
+        BenchmarkApplication.seed(context, teams, members);
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        analyticsRepository = context.getBean(MemberAnalyticsRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Tuple> averageAgeSubquery() {
+        QMember memberSub = new QMember("memberSub");
+        QMember memberAll = new QMember("memberAll");
+        return queryFactory
+                .select(member.id, member.username, member.age, team.id, team.name,
+                        select(memberSub.age.avg()).from(memberSub).where(memberSub.team.eq(member.team)),
+                        select(memberAll.age.avg()).from(memberAll))
+                .from(member)
+                .leftJoin(member.team, team)
+                .orderBy(member.id.asc())
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberAgeStatsDto> averageAgeWindow() {
+        return analyticsRepository.findWithAverageAge();
+    }
+
+    @Benchmark
+    public List<Tuple> oldestSubquery() {
+        QMember memberSub = new QMember("memberSub");
+        return queryFactory
+                .select(member.id, member.username, member.age, team.id, team.name)
+                .from(member)
+                .join(member.team, team)
+                .where(member.age.eq(select(memberSub.age.max()).from(memberSub).where(memberSub.team.eq(member.team))))
+                .orderBy(team.id.asc(), member.id.asc())
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> oldestWindow() {
+        return analyticsRepository.findOldestPerTeam();
+    }
+
+    @Benchmark
+    public List<Tuple> topNSubquery() {
+        QMember memberSub = new QMember("memberSub");
+        return queryFactory
+                .select(member.id, member.username, member.age, team.id, team.name)
+                .from(member)
+                .join(member.team, team)
+                .where(select(memberSub.count()).from(memberSub)
+                        .where(memberSub.team.eq(member.team),
+                                memberSub.age.gt(member.age)
+                                        .or(memberSub.age.eq(member.age).and(memberSub.id.lt(member.id))))
+                        .lt((long) TOP_N))
+                .orderBy(team.id.asc(), member.age.desc(), member.id.asc())
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> topNWindow() {
+        return analyticsRepository.findTopNPerTeam(TOP_N);
+    }
+}
@@ -0,0 +1,79 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import study.querydsl.export.ExportManifest;
+import study.querydsl.export.MemberExportJob;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/*
+user-047 전체 export (csv + mtc) 시간: 구간 병렬 정도별
+    parallelism=1 이 순차 export 기준이다. 구간 수는 parallelism * 4 (MemberExportJob)
+    파일은 임시 디렉터리에 쓰고 호출마다 지운다.
+    ./gradlew jmhMemberExport
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MemberExportBenchmark {
+
+    @Param({"1", "4"})
+    int parallelism;
+
+    @Param({"200000"})
+    int members;
+
+    ConfigurableApplicationContext context;
+    MemberExportJob exportJob;
+    Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start("memberExport",
+                "spring.datasource.hikari.maximum-pool-size=" + (parallelism + 2));
+        BenchmarkApplication.seed(context, 10, members);
+        exportJob = new MemberExportJob(context.getBean(DataSource.class),
+                context.getBean(com.querydsl.sql.Configuration.class),
+                context.getBean(ObjectMapper.class),
+                parallelism, 8192);
+        directory = Files.createTempDirectory("member-export");
+    }
+
+    @TearDown(Level.Invocation)
+    public void clean() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+        context.close();
+    }
+
+    @Benchmark
+    public ExportManifest export() throws IOException {
+        return exportJob.export(directory);
+    }
+}
@@ -0,0 +1,74 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.controller.MemberJsonWriter;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/*
+user-028 /v1/members 응답 만들기
+    - databind : MemberJpaRepository.search -> List<MemberTeamDto> -> ObjectMapper (컨트롤러가 하는 일)
+    - stream   : MemberJsonWriter (tuple -> JsonGenerator, /v1/members/stream)
+    둘 다 같은 조건으로 전체 회원을 읽어 버리는 OutputStream 에 쓴다. 할당량은 gc.alloc.rate.norm (-prof gc)
+    ./gradlew jmhMemberJson
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberJsonBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    MemberJsonWriter memberJsonWriter;
+    ObjectMapper objectMapper;
+    MemberSearchCondition all;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("memberJson");
+        BenchmarkApplication.seed(context, 10, members);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberJsonWriter = context.getBean(MemberJsonWriter.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        all = new MemberSearchCondition();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void databind() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), memberJpaRepository.search(all));
+    }
+
+    @Benchmark
+    public void stream() throws IOException {
+        memberJsonWriter.write(all, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,137 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.sql.MemberRow;
+import study.querydsl.sql.MemberSqlRepository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+user-046 rows 건 적재: JPA vs querydsl-sql (MemberSqlRepository)
+    - insert : persist + flush / insertAll (다중 VALUES) / loadCsv (같은 행의 CSV)
+    - upsert : username in (...) 로 읽어 고치거나 persist / upsertAll (MERGE)
+    insert 로 넣은 행은 iteration 마다 지운다. upsert 는 setUp 에서 넣어둔 같은 username 들을 매번 고친다.
+    ./gradlew jmhMemberSqlLoad
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberSqlLoadBenchmark {
+
+    @Param({"1000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    EntityManager em;
+    TransactionTemplate tx;
+    MemberSqlRepository memberSqlRepository;
+    List<MemberRow> inserts;
+    List<MemberRow> upserts;
+    String csv;
+    int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("memberSqlLoad");
+        em = context.getBean(EntityManager.class);
+        tx = context.getBean(TransactionTemplate.class);
+        memberSqlRepository = context.getBean(MemberSqlRepository.class);
+
+        inserts = new ArrayList<>(rows);
+        upserts = new ArrayList<>(rows);
+        StringBuilder builder = new StringBuilder("username,age,teamId\n");
+        for (int i = 0; i < rows; i++) {
+            inserts.add(new MemberRow("load" + i, i % 100, null));
+            upserts.add(new MemberRow("upsert" + i, i % 100, null));
+            builder.append("load").append(i).append(',').append(i % 100).append(",\n");
+        }
+        csv = builder.toString();
+        memberSqlRepository.insertAll(upserts);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteLoaded() {
+        tx.executeWithoutResult(status -> em.createQuery("delete from Member m where m.username like 'load%'").executeUpdate());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void insertJpa() {
+        tx.executeWithoutResult(status -> {
+            for (MemberRow row : inserts) {
+                em.persist(new Member(row.username(), row.age()));
+            }
+            em.flush();
+            em.clear();
+        });
+    }
+
+    @Benchmark
+    public List<Long> insertSql() {
+        return memberSqlRepository.insertAll(inserts);
+    }
+
+    @Benchmark
+    public long loadCsv() throws IOException {
+        return memberSqlRepository.loadCsv(new StringReader(csv));
+    }
+
+    @Benchmark
+    public void upsertJpa() {
+        int age = ++round % 100;
+        tx.executeWithoutResult(status -> {
+            Map<String, Member> existing = em.createQuery("select m from Member m where m.username in :usernames", Member.class)
+                    .setParameter("usernames", upserts.stream().map(MemberRow::username).toList())
+                    .getResultStream()
+                    .collect(Collectors.toMap(Member::getUsername, Function.identity(), (a, b) -> a));
+            for (MemberRow row : upserts) {
+                Member found = existing.get(row.username());
+                if (found == null) {
+                    em.persist(new Member(row.username(), age));
+                } else {
+                    found.setAge(age);
+                }
+            }
+            em.flush();
+            em.clear();
+        });
+    }
+
+    @Benchmark
+    public long upsertSql() {
+        int age = ++round % 100;
+        return memberSqlRepository.upsertAll(upserts.stream()
+                .map(row -> new MemberRow(row.username(), age, row.teamId()))
+                .toList());
+    }
+}
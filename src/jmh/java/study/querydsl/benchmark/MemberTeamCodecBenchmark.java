@@ -0,0 +1,83 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.codec.MemberTeamBinaryCodec;
+import study.querydsl.dto.codec.MemberTeamBinaryCodec.MemberTeamChunk;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+user-029 application/x-member-team 과 JSON 비교 (DB 없이 인코딩만)
+    - 크기는 setUp 에서 한 번 출력한다. (JSON bytes / binary bytes)
+    - 시간, 할당량(-prof gc) 은 jsonEncode / binaryEncode / binaryDecode
+    teams 가 적을수록 teamName 사전이 잘 먹는다.
+    ./gradlew jmhMemberTeamCodec
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberTeamCodecBenchmark {
+
+    @Param({"1000"})
+    int rows;
+
+    @Param({"10", "1000"})
+    int teams;
+
+    ObjectMapper objectMapper;
+    List<MemberTeamDto> content;
+    MemberTeamChunk chunk;
+    byte[] binary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        content = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            long teamId = i % teams;
+            content.add(new MemberTeamDto((long) i, "member" + i, i % 100, teamId, "team-name-" + teamId));
+        }
+        chunk = MemberTeamChunk.ofList(content);
+        binary = binaryEncode().toByteArray();
+        System.out.printf("rows=%d teams=%d json=%d bytes binary=%d bytes%n",
+                rows, teams, objectMapper.writeValueAsBytes(content).length, binary.length);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws IOException {
+        return objectMapper.writeValueAsBytes(content);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream binaryEncode() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MemberTeamBinaryCodec.encode(chunk, out);
+        return out;
+    }
+
+    @Benchmark
+    public MemberTeamChunk binaryDecode() throws IOException {
+        return MemberTeamBinaryCodec.decode(new ByteArrayInputStream(binary));
+    }
+}
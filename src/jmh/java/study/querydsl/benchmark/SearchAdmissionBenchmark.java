@@ -0,0 +1,120 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.admission.SearchAdmissionInterceptor;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+user-032 비싼 검색이 몰릴 때 싼 검색의 지연
+    한 그룹 안에서 expensive 8 쓰레드가 /v1/members 전체 조회를, cheap 2 쓰레드가 username 조회를 계속 보낸다.
+    커넥션 풀은 4 개로 줄여서 비싼 요청만으로도 풀이 찬다.
+    - admission=off : 인터셉터 없이 바로 조회
+    - admission=on  : SearchAdmissionInterceptor.preHandle / afterCompletion 을 거친다. (429 는 바로 돌아온다)
+    cheap 의 p99 (SampleTime) 를 비교한다.
+    ./gradlew jmhSearchAdmission
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SearchAdmissionBenchmark {
+
+    @Param({"off", "on"})
+    String admission;
+
+    @Param({"20000"})
+    int members;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    SearchAdmissionInterceptor interceptor;
+    MemberSearchCondition all;
+    MemberSearchCondition byUsername;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("admission",
+                "spring.datasource.hikari.maximum-pool-size=4",
+                "querydsl.admission.expensive.initial-limit=2",
+                "querydsl.admission.expensive.max-limit=3");
+        BenchmarkApplication.seed(context, 10, members);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        interceptor = context.getBean(SearchAdmissionInterceptor.class);
+        all = new MemberSearchCondition();
+        byUsername = new MemberSearchCondition();
+        byUsername.setUsername("member7");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(8)
+    public List<MemberTeamDto> expensive() throws Exception {
+        return admitted(request(null), all);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public List<MemberTeamDto> cheap() throws Exception {
+        return admitted(request("member7"), byUsername);
+    }
+
+    private List<MemberTeamDto> admitted(MockHttpServletRequest request, MemberSearchCondition condition) throws Exception {
+        if (admission.equals("off")) {
+            return memberJpaRepository.search(condition);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            interceptor.preHandle(request, response, null);
+        } catch (ResponseStatusException tooManyRequests) {
+            return List.of();
+        }
+        Exception failure = null;
+        try {
+            return memberJpaRepository.search(condition);
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            interceptor.afterCompletion(request, response, null, failure);
+        }
+    }
+
+    private static MockHttpServletRequest request(String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/members");
+        if (username != null) {
+            request.setParameter("username", username);
+        }
+        return request;
+    }
+}
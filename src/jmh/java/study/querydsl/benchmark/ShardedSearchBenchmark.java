@@ -0,0 +1,97 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.shard.ShardedMemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+user-026 샤딩 scatter / gather
+    shards=0 은 단일 DB (MemberRepositoryImpl), shards=4 는 ShardedMemberRepository 로 같은 검색을 한다.
+    호출하는 쪽은 둘 다 MemberRepository 다. (샤드 빈이 있으면 검색이 샤드로 간다)
+    ./gradlew jmhShardedSearch
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardedSearchBenchmark {
+
+    private static final int TEAMS = 10;
+
+    @Param({"0", "4"})
+    int shards;
+
+    @Param({"20000"})
+    int members;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberSearchCondition ageRange;
+    MemberSearchCondition byTeamName;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (shards == 0) {
+            context = BenchmarkApplication.start("sharded");
+            BenchmarkApplication.seed(context, TEAMS, members);
+        } else {
+            context = BenchmarkApplication.start("sharded",
+                    "querydsl.shard.count=" + shards,
+                    "querydsl.shard.url=jdbc:h2:mem:bench_shard%d;DB_CLOSE_DELAY=-1");
+            ShardedMemberRepository sharded = context.getBean(ShardedMemberRepository.class);
+            List<Long> teamIds = new ArrayList<>();
+            for (int i = 0; i < TEAMS; i++) {
+                teamIds.add(sharded.saveTeam("team" + i));
+            }
+            for (int i = 0; i < members; i++) {
+                sharded.saveMember("member" + i, i % 100, teamIds.get(i % TEAMS));
+            }
+        }
+        memberRepository = context.getBean(MemberRepository.class);
+
+        ageRange = new MemberSearchCondition();
+        ageRange.setAgeGoe(20);
+        ageRange.setAgeLoe(40);
+        byTeamName = new MemberSearchCondition();
+        byTeamName.setTeamName("team3");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /* content + count. 샤드마다 offset + size 행을 읽어 병합하고 count 를 더한다. */
+    @Benchmark
+    public Page<MemberTeamDto> pageByAgeRange() {
+        return memberRepository.searchPageSimple(ageRange, PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> listByTeamName() {
+        return memberRepository.search(byTeamName);
+    }
+}
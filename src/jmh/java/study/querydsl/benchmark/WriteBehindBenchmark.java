@@ -0,0 +1,78 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+user-037 동시 insert 처리량: 건마다 커밋 vs write-behind group commit
+    - sync        : 요청마다 트랜잭션 하나로 save
+    - writeBehind : saveAsync(...).join() (커밋이 끝날 때까지 기다리는 것은 같다)
+    storage=file 은 파일 DB 라 커밋마다 디스크에 쓴다. mem 은 커밋 비용이 거의 없어서 묶는 효과가 작게 나온다.
+    ./gradlew jmhWriteBehind
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class WriteBehindBenchmark {
+
+    @Param({"sync", "writeBehind"})
+    String mode;
+
+    @Param({"mem", "file"})
+    String storage;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    TransactionTemplate tx;
+    final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = storage.equals("file")
+                ? "jdbc:h2:file:./build/jmh/h2/writeBehind"
+                : "jdbc:h2:mem:writeBehind;DB_CLOSE_DELAY=-1";
+        context = BenchmarkApplication.start("writeBehind",
+                "spring.datasource.url=" + url,
+                "querydsl.write-behind.enabled=" + mode.equals("writeBehind"));
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        tx = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long insert() {
+        Member member = new Member("writeBehind" + sequence.incrementAndGet(), 20);
+        if (mode.equals("writeBehind")) {
+            return memberJpaRepository.saveAsync(member).join();
+        }
+        tx.executeWithoutResult(status -> memberJpaRepository.save(member));
+        return member.getId();
+    }
+}
@@ -0,0 +1,99 @@
+package study.querydsl.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+AIMD 동시성 제한
+    - 지연이 목표(targetLatency) 이하로 끝나면 limit += 1 / limit  (한 바퀴에 +1 정도)
+    - 목표를 넘기거나 실패하면 limit *= backoffRatio
+    - limit 이 꽉 차면 최대 maxQueue 개까지 maxWait 동안 기다리고, 그 이상은 바로 거절
+*/
+public class AdaptiveConcurrencyLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueue,
+                                      long targetLatencyMillis, double backoffRatio) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+        this.backoffRatio = backoffRatio;
+    }
+
+    public boolean tryAcquire(long maxWait, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(maxWait);
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            if (waiting >= maxQueue) {
+                return false;
+            }
+            waiting++;
+            try {
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long latencyNanos, boolean success) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (success && latencyNanos <= targetLatencyNanos) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            } else {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
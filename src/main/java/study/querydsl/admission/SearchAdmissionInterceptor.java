@@ -0,0 +1,65 @@
+package study.querydsl.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+MemberController 앞단의 admission control
+    CHEAP 요청은 그냥 통과시키고, EXPENSIVE 요청만 AdaptiveConcurrencyLimiter 로 줄 세운다.
+    비싼 요청이 몰려도 커넥션 풀을 다 먹지 못하게 해서, 싼 요청의 지연이 같이 늘어나지 않게 한다.
+    자리가 안 나면 429 Too Many Requests
+*/
+@Component
+public class SearchAdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED_AT = SearchAdmissionInterceptor.class.getName() + ".startedAt";
+
+    private final SearchCostClassifier classifier;
+    private final AdaptiveConcurrencyLimiter expensiveLimiter;
+    private final long maxWaitMillis;
+
+    public SearchAdmissionInterceptor(SearchCostClassifier classifier,
+                                      @Value("${querydsl.admission.expensive.initial-limit:4}") int initialLimit,
+                                      @Value("${querydsl.admission.expensive.max-limit:8}") int maxLimit,
+                                      @Value("${querydsl.admission.expensive.max-queue:16}") int maxQueue,
+                                      @Value("${querydsl.admission.expensive.target-latency-ms:200}") long targetLatencyMillis,
+                                      @Value("${querydsl.admission.expensive.max-wait-ms:500}") long maxWaitMillis) {
+        this.classifier = classifier;
+        this.expensiveLimiter = new AdaptiveConcurrencyLimiter(initialLimit, 1, maxLimit, maxQueue, targetLatencyMillis, 0.9);
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (classifier.classify(request) == SearchCost.CHEAP) {
+            return true;
+        }
+        if (!expensiveLimiter.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "too many expensive member searches");
+        }
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object startedAt = request.getAttribute(STARTED_AT);
+        if (startedAt == null) {
+            return;
+        }
+        request.removeAttribute(STARTED_AT);
+        boolean success = ex == null && response.getStatus() < 500;
+        expensiveLimiter.release(System.nanoTime() - (long) startedAt, success);
+    }
+
+    public AdaptiveConcurrencyLimiter getExpensiveLimiter() {
+        return expensiveLimiter;
+    }
+}
@@ -0,0 +1,5 @@
+package study.querydsl.admission;
+
+public enum SearchCost {
+    CHEAP, EXPENSIVE
+}
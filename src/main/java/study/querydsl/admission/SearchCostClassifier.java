@@ -0,0 +1,105 @@
+package study.querydsl.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import study.querydsl.repository.MemberPagingPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+요청 경로와 파라미터만 보고 검색 비용을 추정한다. (쿼리를 실행하기 전)
+    선택적인 필터 : username, teamName, usernamePrefix, usernameContains, 나이 범위(ageGoe, ageLoe 둘 다)
+    EXPENSIVE
+        - 페이징 없는 /v1/members, /v1/members/stream 을 선택적인 필터 없이 요청 (테이블 전체를 읽는다)
+        - 선택적인 필터 없이 큰 페이지를 요청
+        - offset(page * size) 이 깊음
+        - 인덱스 순서와 다른 정렬 (MemberPagingPolicy.isIndexOrdered)
+*/
+@Component
+public class SearchCostClassifier {
+
+    private final MemberPagingPolicy pagingPolicy;
+    private final int largePageSize;
+    private final long deepOffset;
+
+    public SearchCostClassifier(MemberPagingPolicy pagingPolicy,
+                                @Value("${querydsl.admission.large-page-size:100}") int largePageSize,
+                                @Value("${querydsl.admission.deep-offset:1000}") long deepOffset) {
+        this.pagingPolicy = pagingPolicy;
+        this.largePageSize = largePageSize;
+        this.deepOffset = deepOffset;
+    }
+
+    private static final List<String> UNPAGED_PATHS = List.of("/v1/members", "/v1/members/stream");
+
+    public SearchCost classify(HttpServletRequest request) {
+        boolean selective = isSelective(request);
+        if (UNPAGED_PATHS.contains(path(request))) {
+            return selective ? SearchCost.CHEAP : SearchCost.EXPENSIVE;
+        }
+
+        int page = intParam(request, "page", 0);
+        int size = intParam(request, "size", 20);
+        long offset = (long) page * size;
+
+        if (!selective && size > largePageSize) {
+            return SearchCost.EXPENSIVE;
+        }
+        if (offset > deepOffset) {
+            return SearchCost.EXPENSIVE;
+        }
+        if (!pagingPolicy.isIndexOrdered(sort(request))) {
+            return SearchCost.EXPENSIVE;
+        }
+        return SearchCost.CHEAP;
+    }
+
+    /* 한쪽만 열린 나이 범위(ageGoe=0 등)는 거의 전체라 선택적이지 않다. */
+    private boolean isSelective(HttpServletRequest request) {
+        return StringUtils.hasText(request.getParameter("username"))
+                || StringUtils.hasText(request.getParameter("teamName"))
+                || StringUtils.hasText(request.getParameter("usernamePrefix"))
+                || StringUtils.hasText(request.getParameter("usernameContains"))
+                || (StringUtils.hasText(request.getParameter("ageGoe")) && StringUtils.hasText(request.getParameter("ageLoe")));
+    }
+
+    /* context path 를 뺀 경로. 끝의 / 는 무시한다. */
+    private String path(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    /* sort=username,desc&sort=memberId 형식 */
+    private Sort sort(HttpServletRequest request) {
+        String[] values = request.getParameterValues("sort");
+        if (values == null) {
+            return Sort.unsorted();
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String value : values) {
+            String[] parts = value.split(",");
+            if (!StringUtils.hasText(parts[0])) {
+                continue;
+            }
+            boolean desc = parts.length > 1 && "desc".equalsIgnoreCase(parts[1].trim());
+            orders.add(desc ? Sort.Order.desc(parts[0].trim()) : Sort.Order.asc(parts[0].trim()));
+        }
+        return Sort.by(orders);
+    }
+
+    private int intParam(HttpServletRequest request, String name, int defaultValue) {
+        String value = request.getParameter(name);
+        if (!StringUtils.hasText(value)) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
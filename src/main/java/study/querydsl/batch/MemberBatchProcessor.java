@@ -0,0 +1,207 @@
+package study.querydsl.batch;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.cache.TableVersionStatementInspector;
+import study.querydsl.cache.TableVersions;
+import study.querydsl.entity.Member;
+import study.querydsl.event.ChangeCapture;
+import study.querydsl.event.ChangeType;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static study.querydsl.entity.QMember.member;
+
+/*
+Member 전체를 도는 오프라인 batch (나이 재계산, 팀 재배치 등)
+    - 영속성 컨텍스트가 없는 StatelessSession 으로 읽는다. 몇 행을 돌아도 1차 캐시가 커지지 않는다.
+    - member_id 기준 keyset 으로 commitEvery 행씩 끊고, 끊은 구간마다 트랜잭션 하나. (FORWARD_ONLY scroll)
+      트랜잭션은 JPA 트랜잭션 매니저가 잡은 커넥션 위에 StatelessSession 을 여는 방식이라
+      변경 이벤트 / outbox 가 같은 트랜잭션에 같이 남는다.
+    - callback 이 바꾼 행만 JDBC batch (jdbcBatchSize 행씩) update 로 되돌려 쓴다.
+      되돌려 쓰는 컬럼 : username, age, team_id, team_name
+    - Team 은 프록시로만 온다. (getId 는 되지만 나머지는 StatelessSession 이라 로딩 불가)
+      팀을 바꾸려면 이름까지 로딩된 Team 으로 changeTeam 을 부른다.
+*/
+@Component
+public class MemberBatchProcessor {
+
+    private static final String UPDATE_SQL = "update member set username = ?, age = ?, team_id = ?, team_name = ? where member_id = ?";
+
+    private final SessionFactory sessionFactory;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeCapture changeCapture;
+    private final TableVersionStatementInspector tableWrites;
+    private final int commitEvery;
+    private final int jdbcBatchSize;
+
+    private final Param<Long> lastId = new Param<>(Long.class, "lastId");
+
+    public MemberBatchProcessor(EntityManagerFactory entityManagerFactory,
+                                DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                ChangeCapture changeCapture,
+                                TableVersionStatementInspector tableWrites,
+                                @Value("${querydsl.batch.commit-every:1000}") int commitEvery,
+                                @Value("${querydsl.batch.jdbc-batch-size:100}") int jdbcBatchSize) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.changeCapture = changeCapture;
+        this.tableWrites = tableWrites;
+        this.commitEvery = commitEvery;
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    /* 행마다 callback. 읽은 행 수 / 되돌려 쓴 행 수 */
+    public BatchResult forEachRow(Predicate where, Consumer<Member> callback) {
+        return forEachChunk(where, chunk -> chunk.forEach(callback));
+    }
+
+    /* commitEvery 행 (마지막은 그 이하) 묶음마다 callback. 묶음 하나가 트랜잭션 하나 */
+    public BatchResult forEachChunk(Predicate where, Consumer<List<Member>> callback) {
+        Statement statement = statement(where);
+        long read = 0;
+        long written = 0;
+        Long after = Long.MIN_VALUE;
+        while (true) {
+            Long from = after;
+            ChunkResult chunk = transactionTemplate.execute(status -> processChunk(statement, from, callback));
+            if (chunk == null || chunk.read() == 0) {
+                return new BatchResult(read, written);
+            }
+            read += chunk.read();
+            written += chunk.written();
+            after = chunk.lastId();
+            if (chunk.read() < commitEvery) {
+                return new BatchResult(read, written);
+            }
+        }
+    }
+
+    private ChunkResult processChunk(Statement statement, Long after, Consumer<List<Member>> callback) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);     // 트랜잭션이 잡은 커넥션
+        try {
+            return processChunk(connection, statement, after, callback);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private ChunkResult processChunk(Connection connection, Statement statement, Long after, Consumer<List<Member>> callback) {
+        List<Member> chunk = new ArrayList<>(commitEvery);
+        List<Snapshot> before = new ArrayList<>(commitEvery);
+        try (StatelessSession session = sessionFactory.withStatelessOptions().connection(connection).openStatelessSession()) {
+            Query<Member> query = session.createQuery(statement.jpql(), Member.class);
+            JPAUtil.setConstants(query, statement.constants(), Map.of(lastId, after));   // lastId 도 위치 파라미터 (?n) 로 직렬화된다
+            query.setMaxResults(commitEvery);
+            query.setFetchSize(Math.min(commitEvery, 1000));
+            try (ScrollableResults<Member> rows = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (rows.next()) {
+                    Member row = rows.get();
+                    chunk.add(row);
+                    before.add(Snapshot.of(row));
+                }
+            }
+        }
+        if (chunk.isEmpty()) {
+            return new ChunkResult(0, 0, after);
+        }
+
+        callback.accept(chunk);
+
+        List<Member> changed = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (!before.get(i).equals(Snapshot.of(chunk.get(i)))) {
+                changed.add(chunk.get(i));
+            }
+        }
+        if (!changed.isEmpty()) {
+            writeBack(connection, changed);
+            tableWrites.recordWrite(TableVersions.MEMBER);
+            changeCapture.bulkChanged(TableVersions.MEMBER, ChangeType.UPDATE, changed.stream().map(Member::getId).toList());
+        }
+        return new ChunkResult(chunk.size(), changed.size(), chunk.get(chunk.size() - 1).getId());
+    }
+
+    private void writeBack(Connection connection, List<Member> changed) {
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_SQL)) {
+            int pending = 0;
+            for (Member row : changed) {
+                update.setString(1, row.getUsername());
+                update.setInt(2, row.getAge());
+                Long teamId = row.getTeam() == null ? null : row.getTeam().getId();
+                if (teamId == null) {
+                    update.setNull(3, Types.BIGINT);
+                } else {
+                    update.setLong(3, teamId);
+                }
+                update.setString(4, row.getTeamName());
+                update.setLong(5, row.getId());
+                update.addBatch();
+                if (++pending == jdbcBatchSize) {
+                    update.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("member batch write-back failed", e);
+        }
+    }
+
+    /* Querydsl predicate -> JPQL 한번만 만든다. keyset 경계는 lastId Param (실행할 때 setConstants 로 채운다) */
+    private Statement statement(Predicate where) {
+        JPAQuery<Member> query = new JPAQuery<Member>()
+                .select(member)
+                .from(member)
+                .where(where, member.id.gt(lastId))
+                .orderBy(member.id.asc());
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(query.getMetadata(), false, null);
+        return new Statement(serializer.toString(), serializer.getConstants());
+    }
+
+    public record BatchResult(long read, long written) {
+    }
+
+    private record Statement(String jpql, List<Object> constants) {
+    }
+
+    private record ChunkResult(int read, int written, Long lastId) {
+    }
+
+    private record Snapshot(String username, int age, Long teamId, String teamName) {
+
+        static Snapshot of(Member member) {
+            return new Snapshot(member.getUsername(), member.getAge(),
+                    member.getTeam() == null ? null : member.getTeam().getId(), member.getTeamName());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package study.querydsl.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/*
+엔티티를 거치지 않는 쓰기(Querydsl/JPQL 벌크 update, delete)가 나갔다는 이벤트
+    SQL 을 실행하는 도중에 발행되므로, 리스너에서 쿼리를 날리려면 afterCompletion 으로 미뤄야 한다.
+*/
+public record BulkDmlEvent(String table) {
+
+    public static final String MEMBER = TableVersions.MEMBER;
+    public static final String TEAM = TableVersions.TEAM;
+
+    // 영향받은 id 를 호출한 쪽이 이미 알고 있는 벌크 DML (ChangeCapture.resolveBulk) 이면 이벤트를 내지 않는다.
+    private static final ThreadLocal<Boolean> RESOLVED = ThreadLocal.withInitial(() -> false);
+
+    public static <T> T resolved(Supplier<T> dml) {
+        boolean previous = RESOLVED.get();
+        RESOLVED.set(true);
+        try {
+            return dml.get();
+        } finally {
+            RESOLVED.set(previous);
+        }
+    }
+
+    public static boolean isResolved() {
+        return RESOLVED.get();
+    }
+
+    /* 트랜잭션이 끝난 뒤(커밋/롤백 모두) 실행, 트랜잭션이 없으면 바로 실행 */
+    public void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+}
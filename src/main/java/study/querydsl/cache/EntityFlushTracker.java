@@ -0,0 +1,61 @@
+package study.querydsl.cache;
+
+import org.hibernate.SessionEventListener;
+
+/*
+엔티티 flush 구간(persist, dirty checking, remove 가 SQL 로 나가는 구간)을 쓰레드별로 표시한다.
+    Hibernate 는 엔티티 쓰기를 flush (자동 flush 포함) 안에서만 실행하고, JPQL / Querydsl 벌크 DML 과 native 쿼리는 flush 밖에서 실행한다.
+    그래서 TableVersionStatementInspector 는 SQL 모양 대신 이 표시로 벌크 DML 을 가려낸다.
+    세션마다 하나씩 만들어진다. (hibernate.session.events.auto, JpaConfig)
+*/
+public class EntityFlushTracker implements SessionEventListener {
+
+    private static final ThreadLocal<int[]> FLUSHING = ThreadLocal.withInitial(() -> new int[1]);
+
+    private int depth;  // 이 세션이 연 flush 구간 수 (세션이 닫힐 때 남은 것을 정리)
+
+    public static boolean isFlushing() {
+        return FLUSHING.get()[0] > 0;
+    }
+
+    @Override
+    public void flushStart() {
+        enter();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        exit();
+    }
+
+    @Override
+    public void partialFlushStart() {
+        enter();
+    }
+
+    @Override
+    public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+        exit();
+    }
+
+    @Override
+    public void end() {
+        while (depth > 0) {
+            exit();
+        }
+    }
+
+    private void enter() {
+        depth++;
+        FLUSHING.get()[0]++;
+    }
+
+    private void exit() {
+        if (depth == 0) {
+            return;
+        }
+        depth--;
+        int[] flushing = FLUSHING.get();
+        flushing[0] = Math.max(0, flushing[0] - 1);
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.cache;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+
+/*
+검색 조건 + 페이지 + 정렬을 정규화한 키
+    "", "  " 는 조건 없음(null) 과 같게 본다. (usernameEq, teamNameEq 의 StringUtils.hasText 와 같은 의미)
+*/
+public record MemberSearchKey(String username, String teamName, Integer ageGoe, Integer ageLoe,
+                              String usernamePrefix, String usernameContains, boolean paged, long offset, int size, String sort,
+                              Long after) {
+
+    public static MemberSearchKey of(MemberSearchCondition condition, Pageable pageable) {
+        return of(condition, pageable, null);
+    }
+
+    /* after : 커서 페이징의 시작 memberId */
+    public static MemberSearchKey of(MemberSearchCondition condition, Pageable pageable, Long after) {
+        return new MemberSearchKey(
+                StringUtils.hasText(condition.getUsername()) ? condition.getUsername() : null,
+                StringUtils.hasText(condition.getTeamName()) ? condition.getTeamName() : null,
+                condition.getAgeGoe(),
+                condition.getAgeLoe(),
+                StringUtils.hasText(condition.getUsernamePrefix()) ? condition.getUsernamePrefix() : null,
+                StringUtils.hasText(condition.getUsernameContains()) ? condition.getUsernameContains() : null,
+                pageable.isPaged(),
+                pageable.isPaged() ? pageable.getOffset() : 0,
+                pageable.isPaged() ? pageable.getPageSize() : 0,
+                pageable.getSort().toString(),
+                after
+        );
+    }
+}
@@ -0,0 +1,151 @@
+package study.querydsl.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.codec.MemberTeamBinaryCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/*
+/v2, /v3 검색 응답 캐시 + 조건부 GET
+    - ETag = (endpoint, 정규화된 키, 응답 미디어 타입) 의 SHA-256 앞 16byte + member/team 테이블 버전
+      JSON 과 application/x-member-team 은 body 가 다르므로 ETag 도 달라야 한다. 응답에는 Vary: Accept 를 붙인다.
+    - If-None-Match 가 맞으면 DB 를 안 타고 304
+    - 같은 버전의 결과가 캐시에 있으면 그대로 200
+    - 캐시는 LRU 로 최대 maxEntries 개
+*/
+@Component
+public class MemberSearchResponseCache {
+
+    private static final MediaType BINARY = MediaType.parseMediaType(MemberTeamBinaryCodec.MEDIA_TYPE);
+
+    private final TableVersions tableVersions;
+    private final Map<CacheKey, Entry> entries;
+
+    public MemberSearchResponseCache(TableVersions tableVersions,
+                                     @Value("${querydsl.search-cache.max-entries:1000}") int maxEntries) {
+        this.tableVersions = tableVersions;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public ResponseEntity<Page<MemberTeamDto>> respond(String endpoint, MemberSearchCondition condition, Pageable pageable,
+                                                       WebRequest request, Supplier<Page<MemberTeamDto>> search) {
+        CacheKey key = new CacheKey(endpoint, MemberSearchKey.of(condition, pageable));
+        MediaType mediaType = negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        String version = tableVersions.memberTeamVersion();
+        String etag = "\"" + key.digest(mediaType) + "-" + version + "\"";
+
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+
+        Entry cached = get(key);
+        if (cached != null && cached.version().equals(version)) {
+            return ok(etag, mediaType, cached.page());
+        }
+
+        Page<MemberTeamDto> page = search.get();
+        // 조회 도중 쓰기가 있었으면 이 결과는 어느 버전인지 알 수 없으므로 캐시하지 않는다.
+        if (version.equals(tableVersions.memberTeamVersion())) {
+            put(key, new Entry(version, page));
+        }
+        return ok(etag, mediaType, page);
+    }
+
+    /* Content-Type 을 직접 정해서, ETag 를 계산한 표현과 실제로 나가는 body 가 어긋나지 않게 한다. */
+    private ResponseEntity<Page<MemberTeamDto>> ok(String etag, MediaType mediaType, Page<MemberTeamDto> page) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(mediaType)
+                .body(page);
+    }
+
+    /*
+    메시지 컨버터 선택과 같은 결과를 낸다.
+        q 가 높은 것부터 보고, application/x-member-team 을 와일드카드 없이 적었으면 바이너리, 와일드카드나 JSON 이면 JSON.
+        (JSON 컨버터가 바이너리 컨버터보다 앞에 있다 - WebConfig)
+    */
+    static MediaType negotiate(String accept) {
+        List<MediaType> acceptable;
+        try {
+            acceptable = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        acceptable.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : acceptable) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (!type.isWildcardType() && !type.isWildcardSubtype() && type.includes(BINARY)) {
+                return BINARY;
+            }
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    private synchronized Entry get(CacheKey key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(CacheKey key, Entry entry) {
+        entries.put(key, entry);
+    }
+
+    private record CacheKey(String endpoint, MemberSearchKey key) {
+
+        /* 필드마다 길이를 앞에 붙여서 넣는다. (문자열 경계가 섞여서 다른 키가 같은 입력이 되지 않게) */
+        String digest(MediaType mediaType) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            for (Object part : Arrays.asList(endpoint, mediaType, key.username(), key.teamName(), key.ageGoe(), key.ageLoe(),
+                    key.usernamePrefix(), key.usernameContains(), key.paged(), key.offset(), key.size(), key.sort(), key.after())) {
+                if (part == null) {
+                    digest.update(ByteBuffer.allocate(4).putInt(-1).array());
+                    continue;
+                }
+                byte[] bytes = part.toString().getBytes(StandardCharsets.UTF_8);
+                digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        }
+    }
+
+    private record Entry(String version, Page<MemberTeamDto> page) {
+    }
+}
@@ -0,0 +1,72 @@
+package study.querydsl.cache;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/*
+MemberRepositoryImpl 의 검색을 (메서드, 정규화된 조건 + Pageable) 단위로 합친다.
+    호출한 쪽이 트랜잭션 안이면 자기가 쓴(아직 커밋 안 된) 데이터를 봐야 하므로 합치지 않고 바로 실행한다.
+    MemberTeamDto 는 @Data (setter 있음) 라서 같이 받는 호출마다 List / Page / Slice 와 DTO 를 복사해서 준다.
+*/
+@Component
+public class MemberSearchSingleFlight {
+
+    private final SingleFlight<Key, Object> singleFlight = new SingleFlight<>(MemberSearchSingleFlight::copy);
+
+    public <T> T execute(String method, MemberSearchCondition condition, Pageable pageable, Supplier<T> search) {
+        return execute(method, condition, pageable, null, search);
+    }
+
+    @SuppressWarnings("unchecked")  // 같은 Key 는 같은 메서드의 결과라 T 가 같다.
+    public <T> T execute(String method, MemberSearchCondition condition, Pageable pageable, Long after, Supplier<T> search) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return search.get();
+        }
+        return (T) singleFlight.execute(new Key(method, MemberSearchKey.of(condition, pageable, after)), search::get);
+    }
+
+    public long getExecutedCount() {
+        return singleFlight.getExecutedCount();
+    }
+
+    public long getCoalescedCount() {
+        return singleFlight.getCoalescedCount();
+    }
+
+    static Object copy(Object result) {
+        if (result instanceof Page<?> page) {
+            return new PageImpl<>(copyContent(page.getContent()), page.getPageable(), page.getTotalElements());
+        }
+        if (result instanceof Slice<?> slice) {
+            return new SliceImpl<>(copyContent(slice.getContent()), slice.getPageable(), slice.hasNext());
+        }
+        if (result instanceof List<?> list) {
+            return copyContent(list);
+        }
+        throw new IllegalArgumentException("unsupported search result: " + result.getClass());
+    }
+
+    private static List<Object> copyContent(List<?> content) {
+        List<Object> copy = new ArrayList<>(content.size());
+        for (Object row : content) {
+            copy.add(row instanceof MemberTeamDto dto
+                    ? new MemberTeamDto(dto.getMemberId(), dto.getUsername(), dto.getAge(), dto.getTeamId(), dto.getTeamName())
+                    : row);
+        }
+        return copy;
+    }
+
+    private record Key(String method, MemberSearchKey key) {
+    }
+}
@@ -0,0 +1,76 @@
+package study.querydsl.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/*
+같은 키로 동시에 들어온 호출은 먼저 들어온 호출(leader) 하나만 실행하고, 나머지는 그 결과를 같이 받는다.
+    실행이 끝나면 키를 바로 지우므로 결과를 캐시하지는 않는다. (캐시는 MemberSearchResponseCache)
+    결과가 변경 가능한 객체면 copier 를 준다. leader 는 원본을, 나머지는 각자 사본을 받는다.
+    (사본은 leader 가 돌려받기 전에 떠둔 스냅샷에서 만들어서, leader 쪽 수정이 새지 않는다)
+*/
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final UnaryOperator<V> copier;
+
+    public SingleFlight() {
+        this(UnaryOperator.identity());
+    }
+
+    public SingleFlight(UnaryOperator<V> copier) {
+        this.copier = copier;
+    }
+
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return copier.apply(await(leader));
+        }
+
+        executed.increment();
+        try {
+            V value = supplier.get();
+            mine.complete(copier.apply(value));
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private V await(CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /* 실제로 실행된 횟수 */
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    /* 다른 호출의 결과를 같이 받은 횟수 */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
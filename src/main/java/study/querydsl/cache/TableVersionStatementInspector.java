@@ -0,0 +1,83 @@
+package study.querydsl.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+Hibernate 가 실행하는 모든 SQL 을 보고 member / team 에 대한 쓰기면 버전을 올린다.
+    - em.persist, dirty checking, Querydsl 벌크 update/delete 모두 결국 SQL 로 나가므로 한 곳에서 잡힌다.
+    - 엔티티 단위가 아닌 쓰기(벌크 DML)는 BulkDmlEvent 로 알려준다. (영향받은 id 를 모르는 구독자용)
+      SQL 모양이 아니라 어디서 나왔는지로 가린다. flush 안에서 나간 쓰기만 엔티티 쓰기다. (EntityFlushTracker)
+      where team_id=? 처럼 엔티티 쓰기와 모양이 같은 벌크 update 도 있기 때문
+    - 커밋 전에 올리고, 커밋(롤백) 후에 한번 더 올린다.
+      (커밋 전 데이터를 읽어간 요청이 새 버전으로 캐시에 넣는 걸 막기 위해)
+*/
+@Component
+@RequiredArgsConstructor
+public class TableVersionStatementInspector implements StatementInspector {
+
+    private static final Pattern WRITE = Pattern.compile(
+            "\\b(?:insert\\s+into|update|delete\\s+from|merge\\s+into)\\s+(member|team)\\b");
+
+    private final TableVersions tableVersions;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public String inspect(String sql) {
+        // use_sql_comments 를 켜면 주석에도 같은 문장이 들어있으므로 테이블별로 한번만 올린다.
+        Set<String> tables = new HashSet<>(2);
+        Matcher matcher = WRITE.matcher(sql.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            tables.add(matcher.group(1));
+        }
+        if (tables.isEmpty()) {
+            return sql;
+        }
+        boolean bulk = !BulkDmlEvent.isResolved() && !EntityFlushTracker.isFlushing();
+        for (String table : tables) {
+            tableVersions.bump(table);
+            bumpAfterCompletion(table);
+            if (bulk) {
+                eventPublisher.publishEvent(new BulkDmlEvent(table));
+            }
+        }
+        return sql;
+    }
+
+    /* Hibernate 를 거치지 않는 쓰기(querydsl-sql 등)는 직접 알려준다. */
+    public void recordWrite(String table) {
+        tableVersions.bump(table);
+        bumpAfterCompletion(table);
+    }
+
+    private void bumpAfterCompletion(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> tables = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (tables == null) {
+            Set<String> written = new HashSet<>();
+            tables = written;
+            TransactionSynchronizationManager.bindResource(this, written);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TableVersionStatementInspector.this);
+                    written.forEach(tableVersions::bump);
+                }
+            });
+        }
+        tables.add(table);
+    }
+}
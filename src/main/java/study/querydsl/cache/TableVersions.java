@@ -0,0 +1,38 @@
+package study.querydsl.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+member / team 테이블 버전 카운터
+    쓰기(persist, dirty checking, 벌크 DML)가 나갈 때마다 올라간다. -> TableVersionStatementInspector
+    검색 결과 캐시와 ETag 는 이 버전이 같을 때만 유효하다.
+*/
+@Component
+public class TableVersions {
+
+    public static final String MEMBER = "member";
+    public static final String TEAM = "team";
+
+    private final AtomicLong member = new AtomicLong();
+    private final AtomicLong team = new AtomicLong();
+
+    public void bump(String table) {
+        if (MEMBER.equals(table)) {
+            member.incrementAndGet();
+        } else if (TEAM.equals(table)) {
+            team.incrementAndGet();
+        }
+    }
+
+    public void bumpAll() {
+        member.incrementAndGet();
+        team.incrementAndGet();
+    }
+
+    /* 검색 결과는 두 테이블 모두에 의존한다. */
+    public String memberTeamVersion() {
+        return member.get() + "." + team.get();
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.cache.EntityFlushTracker;
+import study.querydsl.cache.TableVersionStatementInspector;
+
+@Configuration
+public class JpaConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(TableVersionStatementInspector inspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    /* inspector 가 엔티티 쓰기와 벌크 DML 을 가리는 데 쓴다. */
+    @Bean
+    public HibernatePropertiesCustomizer flushTrackerCustomizer() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, EntityFlushTracker.class.getName());
+    }
+}
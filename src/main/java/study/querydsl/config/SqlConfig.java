@@ -0,0 +1,33 @@
+package study.querydsl.config;
+
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.SQLTemplates;
+import com.querydsl.sql.spring.SpringConnectionProvider;
+import com.querydsl.sql.spring.SpringExceptionTranslator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/*
+querydsl-sql 설정
+    SpringConnectionProvider 는 DataSourceUtils 로 커넥션을 얻으므로 JPA 트랜잭션이 잡은 커넥션을 그대로 같이 쓴다.
+    DB 가 H2 이므로 H2Templates. (다른 DB 로 바꾸면 템플릿도 바꿔야 한다)
+*/
+@Configuration
+public class SqlConfig {
+
+    @Bean
+    public com.querydsl.sql.Configuration querydslSqlConfiguration() {
+        SQLTemplates templates = H2Templates.builder().build();
+        com.querydsl.sql.Configuration configuration = new com.querydsl.sql.Configuration(templates);
+        configuration.setExceptionTranslator(new SpringExceptionTranslator());
+        return configuration;
+    }
+
+    @Bean
+    public SQLQueryFactory sqlQueryFactory(com.querydsl.sql.Configuration querydslSqlConfiguration, DataSource dataSource) {
+        return new SQLQueryFactory(querydslSqlConfiguration, new SpringConnectionProvider(dataSource));
+    }
+}
@@ -0,0 +1,45 @@
+package study.querydsl.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.cache.TableVersionStatementInspector;
+import study.querydsl.controller.MemberController;
+import study.querydsl.outbox.MemberOutboxRelay;
+import study.querydsl.repository.MemberTeamNameSynchronizer;
+import study.querydsl.search.UsernameIndex;
+
+/*
+빠른 기동 (fast 프로파일, application-fast.yml)
+    - spring.main.lazy-initialization=true 로 나머지 빈은 처음 쓸 때 만든다.
+      아래 빈은 미리 만들어야 한다.
+        UsernameIndex, MemberTeamNameSynchronizer : @PostConstruct 에서 ChangeEventBus 를 구독한다. (늦게 만들면 그 전 변경을 놓친다)
+        MemberOutboxRelay                         : @Scheduled 는 만들어진 빈에만 걸린다.
+        TableVersionStatementInspector            : Hibernate 가 기동 때 가져간다.
+        MemberController                          : /v1/members 첫 요청 경로
+    - querydsl.startup.training-run=true : 기동이 끝나면 바로 종료한다. (AppCDS 아카이브 만들기, build.gradle cdsArchive)
+*/
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                UsernameIndex.class,
+                MemberTeamNameSynchronizer.class,
+                MemberOutboxRelay.class,
+                TableVersionStatementInspector.class,
+                MemberController.class);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "querydsl.startup", name = "training-run", havingValue = "true")
+    public ApplicationListener<ApplicationReadyEvent> exitAfterStartup(ApplicationContext context) {
+        return event -> System.exit(SpringApplication.exit(context));
+    }
+}
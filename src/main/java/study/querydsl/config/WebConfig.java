@@ -0,0 +1,44 @@
+package study.querydsl.config;
+
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.querydsl.admission.SearchAdmissionInterceptor;
+import study.querydsl.controller.MemberTeamBinaryMessageConverter;
+import study.querydsl.entity.id.PooledIdGenerator;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    public static final String CLIENT_ID_MODE = "spring.jpa.properties." + PooledIdGenerator.MODE;
+
+    private final SearchAdmissionInterceptor searchAdmissionInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(searchAdmissionInterceptor)
+                .addPathPatterns("/v*/members", "/v*/members/**");
+    }
+
+    /* client 모드 id 는 2^53 을 넘어서 JavaScript 숫자로 읽으면 깨진다. Long 은 문자열로 쓴다. (MemberJsonWriter 도 같다) */
+    @Bean
+    @ConditionalOnProperty(name = CLIENT_ID_MODE, havingValue = "client")
+    public Jackson2ObjectMapperBuilderCustomizer longsAsStrings() {
+        return builder -> builder.serializerByType(Long.class, ToStringSerializer.instance);
+    }
+
+    /* 맨 뒤에 둬야 Accept: */* 요청은 기존처럼 JSON 으로 나간다. */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MemberTeamBinaryMessageConverter());
+    }
+}
@@ -1,11 +1,16 @@
 package study.querydsl.controller;
 
 
-import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
@@ -16,6 +21,13 @@ import study.querydsl.entity.Team;
 스프링 부트가 동작하면, local프로파일에 해당하는 설정을 읽어드린다.
 2023-07-12T08:48:39.064+09:00  INFO 22932 --- [           main] study.querydsl.QuerydslApplication       : The following 1 profile is active: "local"
 */
+/*
+샘플 데이터는 기동이 끝난 뒤(ApplicationReadyEvent)에 넣는다. (@PostConstruct 에서 넣으면 기동 시간에 그대로 더해진다)
+    querydsl.startup.async-seed=true 이면 별도 쓰레드에서 넣어서 첫 요청을 기다리게 하지 않는다. (fast 프로파일)
+    UsernameIndex.rebuild 도 ApplicationReadyEvent 에서 돈다. 그쪽이 HIGHEST_PRECEDENCE 라 여기는 rebuild 가 끝난 뒤에 불리고,
+    샘플 데이터는 rebuild 스냅샷 뒤의 커밋으로 인덱스에 들어간다. (쓰레드를 띄우는 것도 그 뒤)
+*/
+@Slf4j
 @Profile(value = "local")
 @Component
 @RequiredArgsConstructor
@@ -23,9 +35,25 @@ public class InitMember {
 
     private final InitMemberService initMemberService;
 
-    @PostConstruct
+    @Value("${querydsl.startup.async-seed:false}")
+    private boolean asyncSeed;
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
     public void init() {
-        initMemberService.init();
+        if (!asyncSeed) {
+            initMemberService.init();
+            return;
+        }
+        Thread seeder = new Thread(() -> {
+            try {
+                initMemberService.init();
+            } catch (RuntimeException e) {
+                log.warn("sample data seeding failed", e);
+            }
+        }, "init-member");
+        seeder.setDaemon(true);
+        seeder.start();
     }
 
     @Component
@@ -1,17 +1,25 @@
 package study.querydsl.controller;
 
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import study.querydsl.cache.MemberSearchResponseCache;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -20,19 +28,41 @@ public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberJsonWriter memberJsonWriter;
+    private final MemberSearchResponseCache searchResponseCache;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
         return memberJpaRepository.search(condition);
     }
 
+    /* DTO 를 거치지 않고 row 를 바로 JSON 으로 쓴다. 응답 모양은 v1 과 같다. */
+    @GetMapping("/v1/members/stream")
+    public void searchMemberV1Stream(MemberSearchCondition condition, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        memberJsonWriter.write(condition, response.getOutputStream());
+    }
+
+    /* 대시보드 polling 용: ETag / If-None-Match + 버전 기반 응답 캐시 */
     @GetMapping("/v2/members")
-    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+    public ResponseEntity<Page<MemberTeamDto>> searchMemberV2(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+        return searchResponseCache.respond("v2", condition, pageable, request,
+                () -> memberRepository.searchPageSimple(condition, pageable));
     }
 
     @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+    public ResponseEntity<Page<MemberTeamDto>> searchMemberV3(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+        return searchResponseCache.respond("v3", condition, pageable, request,
+                () -> memberRepository.searchPageComplex(condition, pageable));
+    }
+
+    /*
+    무한 스크롤용: 전체 개수 없이 hasNext 만 준다. (count 쿼리 없음)
+        after=<이전 페이지 마지막 memberId> 를 주면 offset 없이 커서로 읽는다. (memberId 정렬만)
+    */
+    @GetMapping("/v4/members")
+    public Slice<MemberTeamDto> searchMemberV4(MemberSearchCondition condition, Pageable pageable,
+                                              @RequestParam(required = false) Long after) {
+        return memberRepository.searchSlice(condition, after, pageable);
     }
 }
@@ -0,0 +1,81 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.core.Tuple;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.config.WebConfig;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+/v1/members 의 빠른 경로
+    기존: ResultSet -> Hibernate tuple -> MemberTeamDto -> Jackson(리플렉션) -> bytes
+    여기: ResultSet -> Hibernate tuple -> JsonGenerator -> OutputStream
+
+    - 필드명은 미리 UTF-8 로 인코딩해둔 SerializedString 을 그대로 복사한다.
+    - 버퍼는 Jackson 의 BufferRecycler 가 쓰레드별로 재사용한다.
+    - 결과 모양은 MemberTeamDto 직렬화 결과와 같다. (client id 모드면 id 는 문자열, WebConfig.longsAsStrings)
+*/
+@Component
+@RequiredArgsConstructor
+public class MemberJsonWriter {
+
+    private static final SerializableString MEMBER_ID = new SerializedString("memberId");
+    private static final SerializableString USERNAME = new SerializedString("username");
+    private static final SerializableString AGE = new SerializedString("age");
+    private static final SerializableString TEAM_ID = new SerializedString("teamId");
+    private static final SerializableString TEAM_NAME = new SerializedString("teamName");
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${" + WebConfig.CLIENT_ID_MODE + ":pooled}")
+    private String idMode;
+
+    @Transactional(readOnly = true)
+    public void write(MemberSearchCondition condition, OutputStream out) throws IOException {
+        try (Stream<Tuple> rows = memberJpaRepository.searchStream(condition);
+             JsonGenerator gen = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartArray();
+            for (Tuple row : (Iterable<Tuple>) rows::iterator) {
+                gen.writeStartObject();
+                gen.writeFieldName(MEMBER_ID);
+                writeLong(gen, row.get(member.id));
+                gen.writeFieldName(USERNAME);
+                gen.writeString(row.get(member.username));
+                gen.writeFieldName(AGE);
+                gen.writeNumber(row.get(member.age));
+                gen.writeFieldName(TEAM_ID);
+                writeLong(gen, row.get(team.id));
+                gen.writeFieldName(TEAM_NAME);
+                gen.writeString(row.get(team.name));
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    private void writeLong(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if ("client".equals(idMode)) {
+            gen.writeString(value.toString());
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
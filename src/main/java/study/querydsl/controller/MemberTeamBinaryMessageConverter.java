@@ -0,0 +1,90 @@
+package study.querydsl.controller;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.codec.MemberTeamBinaryCodec;
+import study.querydsl.dto.codec.MemberTeamBinaryCodec.MemberTeamChunk;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+/*
+Accept: application/x-member-team 이면 Page<MemberTeamDto>, List<MemberTeamDto> 를 바이너리로 내려준다.
+    RestTemplate 등에 등록하면 클라이언트 쪽 디코더로도 쓸 수 있다. (Page 로 받으면 PageImpl, 아니면 List)
+*/
+public class MemberTeamBinaryMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MemberTeamBinaryCodec.MEDIA_TYPE);
+
+    public MemberTeamBinaryMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    /* 클래스만으로는 원소 타입을 알 수 없다. (List<String> 도 List) 제네릭 타입을 받는 canRead / canWrite 로만 판단한다. */
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return isMemberTeamContainer(type) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return isMemberTeamContainer(type != null ? type : clazz) && canWrite(mediaType);
+    }
+
+    private boolean isMemberTeamContainer(Type type) {
+        if (type == null) {
+            return false;
+        }
+        ResolvableType resolvable = ResolvableType.forType(type);
+        ResolvableType element = Page.class.isAssignableFrom(resolvable.toClass())
+                ? resolvable.as(Page.class).getGeneric(0)
+                : resolvable.as(Collection.class).getGeneric(0);
+        return element.resolve() == MemberTeamDto.class;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        MemberTeamChunk chunk;
+        if (body instanceof Page<?> page) {
+            chunk = new MemberTeamChunk((List<MemberTeamDto>) page.getContent(), page.getPageable().isPaged(),
+                    page.getNumber(), page.getSize(), page.getTotalElements());
+        } else {
+            chunk = MemberTeamChunk.ofList((List<MemberTeamDto>) body);
+        }
+        MemberTeamBinaryCodec.encode(chunk, outputMessage.getBody());
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        MemberTeamChunk decoded = MemberTeamBinaryCodec.decode(inputMessage.getBody());
+        if (!Page.class.isAssignableFrom(ResolvableType.forType(type).toClass())) {
+            return decoded.content();
+        }
+        Pageable pageable = decoded.paged()
+                ? PageRequest.of((int) decoded.page(), decoded.size())
+                : Pageable.unpaged();
+        return new PageImpl<>(decoded.content(), pageable, decoded.total());
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        throw new HttpMessageNotReadableException("generic type information required", inputMessage);
+    }
+}
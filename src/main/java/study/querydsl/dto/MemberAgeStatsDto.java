@@ -0,0 +1,25 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+@Data
+public class MemberAgeStatsDto {
+    private Long memberId;
+    private String username;
+    private int age;
+    private Long teamId;
+    private String teamName;
+    private Double teamAvgAge;      // 팀이 없으면 null
+    private double globalAvgAge;
+
+    public MemberAgeStatsDto(Long memberId, String username, int age, Long teamId, String teamName,
+                             Double teamAvgAge, double globalAvgAge) {
+        this.memberId = memberId;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.teamAvgAge = teamAvgAge;
+        this.globalAvgAge = globalAvgAge;
+    }
+}
@@ -12,4 +12,8 @@ public class MemberSearchCondition {
     private Integer ageGoe;
     private Integer ageLoe;
 
+    // username 부분 검색 (UsernameIndex 로 id 를 먼저 찾는다)
+    private String usernamePrefix;
+    private String usernameContains;
+
 }
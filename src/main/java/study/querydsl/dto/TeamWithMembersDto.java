@@ -0,0 +1,34 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TeamWithMembersDto {
+    private Long teamId;
+    private String teamName;
+    private List<MemberItem> members = new ArrayList<>();
+    private boolean hasMoreMembers;     // members 는 팀마다 앞쪽 일부만 담는다. (TeamRepository.searchWithMembers)
+
+    public TeamWithMembersDto(Long teamId, String teamName) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+    }
+
+    @Data
+    public static class MemberItem {
+        private Long memberId;
+        private String username;
+        private int age;
+
+        @QueryProjection
+        public MemberItem(Long memberId, String username, int age) {
+            this.memberId = memberId;
+            this.username = username;
+            this.age = age;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package study.querydsl.dto.codec;
+
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+MemberTeamDto 목록/페이지용 컬럼 단위 바이너리 포맷 (application/x-member-team)
+
+    header  : version(1byte) | paged(1byte) | page | size | total | rowCount
+    dict    : teamName 사전 (count, [len, utf-8 bytes]...)  - 같은 팀명은 한번만 쓴다
+    columns : memberId 존재 bitmap | memberId[] | username[] | age[] | teamId 존재 bitmap | teamId[] | teamNameIndex[]
+
+    - 숫자는 전부 varint (LEB128). age 는 zigzag
+    - memberId, teamId 는 (rowCount + 7) / 8 바이트 bitmap 으로 null 을 표시하고, null 이 아닌 값만 그대로 쓴다. (음수 id 도 그대로 돌아온다)
+    - 문자열은 길이 + 1 (0 이 null)
+    - decode 는 입력 전체를 읽은 뒤 개수, 길이를 남은 바이트 수와 비교하고 나서 배열을 만든다. (잘못된 입력은 IOException)
+    - 서버(MemberTeamBinaryMessageConverter)와 클라이언트가 같은 클래스로 encode/decode 한다.
+*/
+public final class MemberTeamBinaryCodec {
+
+    public static final String MEDIA_TYPE = "application/x-member-team";
+    private static final int VERSION = 2;
+
+    private MemberTeamBinaryCodec() {
+    }
+
+    public static void encode(MemberTeamChunk chunk, OutputStream out) throws IOException {
+        List<MemberTeamDto> rows = chunk.content();
+        Writer w = new Writer(rows.size() * 16 + 64);
+        w.raw(VERSION);
+        w.raw(chunk.paged() ? 1 : 0);
+        w.varLong(chunk.page());
+        w.varLong(chunk.size());
+        w.varLong(chunk.total());
+        w.varLong(rows.size());
+
+        // teamName 사전
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> entries = new ArrayList<>();
+        int[] teamNameIndex = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            String teamName = rows.get(i).getTeamName();
+            if (teamName == null) {
+                continue;
+            }
+            Integer index = dictionary.get(teamName);
+            if (index == null) {
+                index = entries.size();
+                dictionary.put(teamName, index);
+                entries.add(teamName);
+            }
+            teamNameIndex[i] = index + 1;
+        }
+        w.varLong(entries.size());
+        for (String entry : entries) {
+            w.string(entry);
+        }
+
+        w.nullableLongs(rows.stream().map(MemberTeamDto::getMemberId).toList());
+        for (MemberTeamDto row : rows) {
+            w.string(row.getUsername());
+        }
+        for (MemberTeamDto row : rows) {
+            w.varLong(zigzag(row.getAge()));
+        }
+        w.nullableLongs(rows.stream().map(MemberTeamDto::getTeamId).toList());
+        for (int index : teamNameIndex) {
+            w.varLong(index);
+        }
+        w.writeTo(out);
+    }
+
+    public static MemberTeamChunk decode(InputStream in) throws IOException {
+        Reader r = new Reader(in.readAllBytes());
+        int version = r.raw();
+        if (version != VERSION) {
+            throw new IOException("unsupported member-team format version: " + version);
+        }
+        boolean paged = r.raw() == 1;
+        long page = r.varLong();
+        long size = r.varLong();
+        long total = r.varLong();
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("malformed member-team size: " + size);
+        }
+        // 행마다 username, age, teamNameIndex 가 최소 1바이트씩, 사전 항목마다 최소 1바이트
+        int count = r.count(3);
+
+        String[] dictionary = new String[r.count(1)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = r.string();
+        }
+
+        Long[] memberIds = r.nullableLongs(count);
+        String[] usernames = new String[count];
+        int[] ages = new int[count];
+        for (int i = 0; i < count; i++) {
+            usernames[i] = r.string();
+        }
+        for (int i = 0; i < count; i++) {
+            ages[i] = unzigzag(r.varLong());
+        }
+        Long[] teamIds = r.nullableLongs(count);
+        List<MemberTeamDto> content = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long index = r.varLong();
+            if (index < 0 || index > dictionary.length) {
+                throw new IOException("malformed member-team teamName index: " + index);
+            }
+            String teamName = index == 0 ? null : dictionary[(int) index - 1];
+            content.add(new MemberTeamDto(memberIds[i], usernames[i], ages[i], teamIds[i], teamName));
+        }
+        return new MemberTeamChunk(content, paged, page, (int) size, total);
+    }
+
+    private static long zigzag(int value) {
+        return Integer.toUnsignedLong((value << 1) ^ (value >> 31));
+    }
+
+    private static int unzigzag(long value) {
+        int v = (int) value;
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /* encode 입력이자 decode 결과. 페이지가 아닌 목록(List)은 paged=false, total=content 크기 */
+    public record MemberTeamChunk(List<MemberTeamDto> content, boolean paged, long page, int size, long total) {
+
+        public static MemberTeamChunk ofList(List<MemberTeamDto> content) {
+            return new MemberTeamChunk(content, false, 0, content.size(), content.size());
+        }
+    }
+
+    private static class Writer extends ByteArrayOutputStream {
+
+        Writer(int size) {
+            super(size);
+        }
+
+        void raw(int b) {
+            write(b);
+        }
+
+        void varLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void nullableLongs(List<Long> values) {
+            byte[] present = new byte[(values.size() + 7) / 8];
+            for (int i = 0; i < values.size(); i++) {
+                if (values.get(i) != null) {
+                    present[i >>> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+            write(present, 0, present.length);
+            for (Long value : values) {
+                if (value != null) {
+                    varLong(value);
+                }
+            }
+        }
+
+        void string(String value) {
+            if (value == null) {
+                varLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varLong(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int remaining() {
+            return bytes.length - position;
+        }
+
+        int raw() throws IOException {
+            if (position == bytes.length) {
+                throw new EOFException();
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        long varLong() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = raw();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("malformed varint");
+        }
+
+        /* 항목마다 최소 minBytes 를 차지하는 개수. 남은 입력으로 담을 수 없으면 IOException */
+        int count(int minBytes) throws IOException {
+            long count = varLong();
+            if (count < 0 || count > remaining() / minBytes) {
+                throw new IOException("malformed member-team count: " + count + " (remaining " + remaining() + " bytes)");
+            }
+            return (int) count;
+        }
+
+        Long[] nullableLongs(int count) throws IOException {
+            int bitmapLength = (count + 7) / 8;
+            if (bitmapLength > remaining()) {
+                throw new EOFException();
+            }
+            int bitmap = position;
+            position += bitmapLength;
+            Long[] values = new Long[count];
+            for (int i = 0; i < count; i++) {
+                if ((bytes[bitmap + (i >>> 3)] & (1 << (i & 7))) != 0) {
+                    values[i] = varLong();
+                }
+            }
+            return values;
+        }
+
+        String string() throws IOException {
+            long length = varLong();
+            if (length == 0) {
+                return null;
+            }
+            if (length < 0 || length - 1 > remaining()) {
+                throw new IOException("malformed member-team string length: " + length + " (remaining " + remaining() + " bytes)");
+            }
+            String value = new String(bytes, position, (int) length - 1, StandardCharsets.UTF_8);
+            position += (int) length - 1;
+            return value;
+        }
+    }
+}
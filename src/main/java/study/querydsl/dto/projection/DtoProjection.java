@@ -0,0 +1,60 @@
+package study.querydsl.dto.projection;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/*
+Projections.bean / fields / constructor 와 같은 역할을 하지만,
+    row 마다 리플렉션을 타지 않고 DtoProjections 가 클래스별로 한번 만들어 캐시해둔 factory 를 호출한다.
+*/
+public class DtoProjection<T> extends FactoryExpressionBase<T> {
+
+    enum Kind { CONSTRUCTOR, BEAN }
+
+    private final Kind kind;
+    private final List<Expression<?>> args;
+    private final Function<Object[], T> factory;
+
+    DtoProjection(Kind kind, Class<? extends T> type, List<Expression<?>> args, Function<Object[], T> factory) {
+        super(type);
+        this.kind = kind;
+        this.args = args;
+        this.factory = factory;
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    public T newInstance(Object... a) {
+        return factory.apply(a);
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+
+    /*
+    hashCode 는 ExpressionBase 가 final 로 갖고 있고, HashCodeVisitor 로 (type, args) 에서 계산한다.
+    equals 는 (kind, type, args) 를 비교한다. 같으면 hashCode 도 같다. (DtoProjectionsTest.equalProjectionsShareHashCode)
+        다른 FactoryExpression 구현(QBean 등)은 DtoProjection 을 같다고 보지 않으므로 여기서도 DtoProjection 끼리만 비교한다. (대칭)
+        bean 과 constructor 는 같은 인자라도 값을 넣는 방법이 다르므로 다르다.
+    */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof DtoProjection<?> other)) {
+            return false;
+        }
+        return kind == other.kind && getType().equals(other.getType()) && args.equals(other.args);
+    }
+}
@@ -0,0 +1,220 @@
+package study.querydsl.dto.projection;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/*
+리플렉션 없는 DTO 프로젝션
+    - constructor : 생성자 MethodHandle 을 (Object[])Object 로 펼쳐서 invokeExact
+    - bean        : 기본 생성자 / setter 를 LambdaMetafactory 로 Supplier, BiConsumer 로 만든다. (JIT 가 일반 호출처럼 인라인)
+                    setter 가 없으면 필드 MethodHandle 로 대신 넣는다. (Projections.fields 역할)
+    - 별칭은 Projections 와 똑같이 member.username.as("name") 으로 준다.
+
+    만드는 비용은 (DTO 클래스, 인자 타입 + 별칭) 조합당 한번이고, 이후는 캐시에서 꺼내 쓴다.
+
+    List<UserDto> result = queryFactory
+            .select(DtoProjections.bean(UserDto.class, member.username.as("name"), member.age))
+            .from(member)
+            .fetch();
+*/
+public final class DtoProjections {
+
+    private static final Map<String, Function<Object[], ?>> FACTORIES = new ConcurrentHashMap<>();
+
+    private DtoProjections() {
+    }
+
+    public static <T> DtoProjection<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+        Class<?>[] argTypes = Arrays.stream(exprs).map(Expression::getType).toArray(Class<?>[]::new);
+        String key = "constructor:" + type.getName() + Arrays.toString(argTypes);
+        Function<Object[], T> factory = cached(key, () -> constructorFactory(type, argTypes));
+        return new DtoProjection<>(DtoProjection.Kind.CONSTRUCTOR, type, List.of(exprs), factory);
+    }
+
+    /* 같은 별칭이라도 인자 타입이 다르면 고르는 setter 가 다를 수 있으므로 캐시 키에 타입도 넣는다. */
+    public static <T> DtoProjection<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        String[] names = Arrays.stream(exprs).map(DtoProjections::propertyName).toArray(String[]::new);
+        Class<?>[] argTypes = Arrays.stream(exprs).map(Expression::getType).toArray(Class<?>[]::new);
+        String key = "bean:" + type.getName() + Arrays.toString(names) + Arrays.toString(argTypes);
+        Function<Object[], T> factory = cached(key, () -> beanFactory(type, names, argTypes));
+        return new DtoProjection<>(DtoProjection.Kind.BEAN, type, List.of(exprs), factory);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Function<Object[], T> cached(String key, Supplier<Function<Object[], T>> creator) {
+        return (Function<Object[], T>) FACTORIES.computeIfAbsent(key, k -> creator.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Function<Object[], T> constructorFactory(Class<? extends T> type, Class<?>[] argTypes) {
+        Constructor<?> constructor = findConstructor(type, argTypes);
+        try {
+            MethodHandle handle = lookup(type)
+                    .unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, argTypes.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return args -> {
+                try {
+                    return (T) (Object) handle.invokeExact(args);
+                } catch (Throwable e) {
+                    throw new IllegalStateException("failed to create " + type.getName(), e);
+                }
+            };
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("constructor not accessible: " + constructor, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Function<Object[], T> beanFactory(Class<? extends T> type, String[] names, Class<?>[] argTypes) {
+        Supplier<Object> creator = noArgsCreator(type);
+        BiConsumer<Object, Object>[] setters = new BiConsumer[names.length];
+        for (int i = 0; i < names.length; i++) {
+            setters[i] = setter(type, names[i], argTypes[i]);
+        }
+        return args -> {
+            Object bean = creator.get();
+            for (int i = 0; i < setters.length; i++) {
+                // Projections.bean 과 같이 null 은 건너뛴다. (primitive 필드 보호)
+                if (args[i] != null) {
+                    setters[i].accept(bean, args[i]);
+                }
+            }
+            return (T) bean;
+        };
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type, Class<?>[] argTypes) {
+        for (Constructor<?> constructor : type.getConstructors()) {
+            Class<?>[] params = constructor.getParameterTypes();
+            if (params.length != argTypes.length) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < params.length && matches; i++) {
+                matches = wrap(params[i]).isAssignableFrom(wrap(argTypes[i]));
+            }
+            if (matches) {
+                return constructor;
+            }
+        }
+        throw new IllegalArgumentException("no constructor " + type.getSimpleName() + Arrays.toString(argTypes));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> noArgsCreator(Class<?> type) {
+        try {
+            MethodHandles.Lookup lookup = lookup(type);
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(lookup,
+                    "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    constructor,
+                    MethodType.methodType(type));
+            return (Supplier<Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(type.getName() + " needs a no-args constructor", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Class<?> type, String property, Class<?> argType) {
+        Method method = findSetter(type, property, argType);
+        try {
+            MethodHandles.Lookup lookup = lookup(type);
+            if (method != null) {
+                MethodHandle setter = lookup.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(lookup,
+                        "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        setter,
+                        MethodType.methodType(void.class, type, wrap(method.getParameterTypes()[0])));
+                return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+            }
+
+            // setter 가 없으면 필드에 직접 (Projections.fields 와 같은 동작)
+            Field field = findField(type, property);
+            MethodHandle fieldSetter = lookup.unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (bean, value) -> {
+                try {
+                    fieldSetter.invokeExact(bean, value);
+                } catch (Throwable e) {
+                    throw new IllegalStateException("failed to set " + property, e);
+                }
+            };
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("cannot bind " + type.getSimpleName() + "." + property, e);
+        }
+    }
+
+    /* 인자 타입을 받을 수 있는 setter 를 먼저, 없으면 이름만 맞는 setter (오버로드가 없으면 둘은 같다) */
+    private static Method findSetter(Class<?> type, String property, Class<?> argType) {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        Method byName = null;
+        for (Method method : type.getMethods()) {
+            if (!method.getName().equals(name) || method.getParameterCount() != 1) {
+                continue;
+            }
+            if (wrap(method.getParameterTypes()[0]).isAssignableFrom(wrap(argType))) {
+                return method;
+            }
+            if (byName == null) {
+                byName = method;
+            }
+        }
+        return byName;
+    }
+
+    private static Field findField(Class<?> type, String property) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(property);
+            } catch (NoSuchFieldException ignored) {
+                // 상위 클래스에서 다시 찾는다.
+            }
+        }
+        throw new IllegalArgumentException("no property '" + property + "' on " + type.getSimpleName());
+    }
+
+    /* member.username.as("name") -> name, member.username -> username */
+    private static String propertyName(Expression<?> expr) {
+        if (expr instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS) {
+            return propertyName(operation.getArg(1));
+        }
+        if (expr instanceof Path<?> path) {
+            return path.getMetadata().getName();
+        }
+        throw new IllegalArgumentException("expression needs an alias: " + expr);
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> type) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
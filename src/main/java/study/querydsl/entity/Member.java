@@ -3,25 +3,47 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.springframework.stereotype.Component;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import study.querydsl.entity.id.PooledIdGenerator;
+import study.querydsl.event.ChangeCaptureListener;
+import study.querydsl.search.UsernameIndexListener;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username, member_id"),
+        @Index(name = "idx_member_age", columnList = "age, member_id"),
+        @Index(name = "idx_member_team", columnList = "team_id, member_id"),
+        @Index(name = "idx_member_team_name", columnList = "team_name, member_id")
+})
+@EntityListeners({UsernameIndexListener.class, ChangeCaptureListener.class})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)  // pja 스펙상 필요
 @ToString(of = {"id", "username", "age"})   // 무한 루프 주의
 public class Member {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_seq")
+    @GenericGenerator(name = "member_seq", type = PooledIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))    // pooled-lo 또는 client 생성
     @Column(name = "member_id")
     private Long id;
     private String username;
     private int age;
 
+    // setter 를 열면 teamName 복사본을 건너뛸 수 있으므로 changeTeam 으로만 바꾼다.
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
+    @Setter(AccessLevel.NONE)
     private Team team;
 
+    // team.name 복사본 (조인 없는 검색용). changeTeam, MemberTeamNameSynchronizer 가 맞춰준다.
+    @Column(name = "team_name")
+    @Setter(AccessLevel.NONE)
+    private String teamName;
+
     public Member(String username) {
         this(username, 0);
     }
@@ -38,8 +60,31 @@ public class Member {
         }
     }
 
+    /*
+    연관관계 편의 메서드 - 팀 크기와 상관없이 Team.members 를 로딩하지 않는다. (주인은 Member.team)
+        - 관리 중인 Team 의 members 는 mappedBy 쪽 PersistentBag 이라 add 는 로딩 없이 큐에 쌓였다가 초기화될 때 반영된다.
+        - remove 는 bag 전체를 읽어야 하므로 이미 로딩된 컬렉션에서만 뺀다.
+        - 아직 초기화 안 된 Team 프록시의 members 는 건드리지 않는다.
+        로딩 안 된 쪽은 다음에 DB 에서 읽을 때 FK 기준으로 맞게 나온다.
+    teamName 복사본은 team.getName() 으로 채우므로, team 이 초기화 안 된 프록시(getReference 등)면 team 을 한 건 select 한다.
+    이름을 이미 알고 있으면 changeTeam(team, teamName) 으로 그 select 없이 바꾼다.
+    */
     public void changeTeam(Team team) {
+        changeTeam(team, team.getName());
+    }
+
+    public void changeTeam(Team team, String teamName) {
+        Team oldTeam = this.team;
         this.team = team;
-        team.getMembers().add(this);
+        this.teamName = teamName;
+        if (oldTeam == team) {
+            return;
+        }
+        if (oldTeam != null && Hibernate.isInitialized(oldTeam) && Hibernate.isInitialized(oldTeam.getMembers())) {
+            oldTeam.getMembers().remove(this);
+        }
+        if (Hibernate.isInitialized(team)) {
+            team.getMembers().add(this);
+        }
     }
 }
@@ -0,0 +1,55 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import study.querydsl.entity.id.PooledIdGenerator;
+import study.querydsl.event.ChangeType;
+
+import java.time.Instant;
+
+/*
+Member 변경 outbox. Member 를 바꾼 트랜잭션 안에서 같이 insert 된다. (MemberOutboxWriter)
+    - id 순서 = 기록 순서. relay 가 id 순으로 가져가서 전달하고 지운다.
+    - INSERT / UPDATE 는 커밋 직전 시점의 값을 같이 담는다. DELETE 는 memberId 만.
+    - UNRESOLVED : 대상 id 를 모르는 벌크 DML. 받는 쪽은 전체를 다시 동기화해야 한다. (memberId = null)
+*/
+@Entity
+@Table(name = "member_outbox")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberOutbox {
+
+    @Id
+    @GeneratedValue(generator = "member_outbox_seq")
+    @GenericGenerator(name = "member_outbox_seq", type = PooledIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_outbox_seq"))
+    @Column(name = "outbox_id")
+    private Long id;
+
+    private Long memberId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ChangeType changeType;
+
+    private String username;
+    private Integer age;
+    private Long teamId;
+    private Instant createdAt;
+
+    public MemberOutbox(Long memberId, ChangeType changeType, String username, Integer age, Long teamId, Instant createdAt) {
+        this.memberId = memberId;
+        this.changeType = changeType;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/*
+upsert 직렬화용 잠금 행. (MemberSqlRepository.upsertAll)
+    - 테이블은 ddl-auto 로 만들기 위해 엔티티로 둔다. 행은 upsert 가 merge 로 만들고, 그 merge 가 곧 행 잠금이다.
+    - 잠금은 트랜잭션이 끝날 때 풀리므로 같은 name 의 upsert 는 인스턴스가 달라도 한 번에 하나씩만 돈다.
+*/
+@Entity
+@Table(name = "upsert_lock")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class UpsertLock {
+
+    @Id
+    @Column(name = "lock_name", length = 64)
+    private String name;
+
+    public UpsertLock(String name) {
+        this.name = name;
+    }
+}
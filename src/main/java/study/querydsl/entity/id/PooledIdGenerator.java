@@ -0,0 +1,69 @@
+package study.querydsl.entity.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+
+/*
+Member, Team id 생성기
+    mode = pooled (기본)
+        보통의 SequenceStyleGenerator 다. 시퀀스 한번 호출로 block-size 개의 id 를 메모리에서 나눠준다.
+        옵티마이저는 hibernate.id.optimizer.pooled.preferred: pooled-lo (application.yml) 한 줄로 고른다.
+        (@SequenceGenerator 면 allocationSize 50 이 기본이지만, @GenericGenerator 는 increment 기본값이 1 이라 block-size 만 넘긴다)
+    mode = client
+        TimeOrderedIdGenerator 로 애플리케이션에서 바로 만든다. insert 에 DB 왕복이 전혀 없다.
+        id 가 2^53 을 넘으므로 JSON 에서는 문자열로 나간다. (WebConfig, MemberJsonWriter)
+
+    설정 (spring.jpa.properties 아래)
+        querydsl.id.mode: pooled | client
+        querydsl.id.block-size: 50
+        querydsl.id.node: 0~1023     # client 모드에서 필수. 인스턴스마다 달라야 한다.
+*/
+public class PooledIdGenerator extends SequenceStyleGenerator {
+
+    public static final String MODE = "querydsl.id.mode";
+    public static final String BLOCK_SIZE = "querydsl.id.block-size";
+    public static final String NODE = "querydsl.id.node";
+
+    // 같은 노드의 모든 엔티티가 하나를 같이 쓴다. (id 가 전역에서 유일)
+    private static volatile TimeOrderedIdGenerator clientIds;
+
+    private boolean clientSide;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<String, Object> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        clientSide = "client".equalsIgnoreCase(ConfigurationHelper.getString(MODE, settings, "pooled"));
+        if (clientSide) {
+            // 기본값 0 으로 두면 여러 인스턴스가 같은 노드 번호로 같은 id 를 만든다.
+            String node = ConfigurationHelper.getString(NODE, settings);
+            if (node == null || node.isBlank()) {
+                throw new MappingException(NODE + " must be set when " + MODE + "=client (unique per instance, 0-1023)");
+            }
+            clientIds(Integer.parseInt(node.trim()));
+        }
+
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(ConfigurationHelper.getInt(BLOCK_SIZE, settings, 50)));
+        super.configure(type, parameters, serviceRegistry);
+    }
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        if (clientSide) {
+            return clientIds.next();
+        }
+        return super.generate(session, object);
+    }
+
+    private static synchronized void clientIds(int node) {
+        if (clientIds == null) {
+            clientIds = new TimeOrderedIdGenerator(node);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package study.querydsl.entity.id;
+
+/*
+DB 왕복 없이 클라이언트에서 만드는 시간순 64bit id (snowflake 방식)
+    | 1bit 0 | 41bit 밀리초(2023-01-01 부터) | 10bit 노드 | 12bit 같은 밀리초 안의 순번 |
+    - 노드별로 유일하고, 시간순으로 증가한다. (인덱스에 뒤쪽으로만 붙는다)
+    - 한 밀리초에 4096 개를 넘으면 다음 밀리초까지 기다린다.
+    - 시계가 뒤로 가면 마지막 시각을 계속 쓴다.
+*/
+public class TimeOrderedIdGenerator {
+
+    private static final long EPOCH = 1672531200000L;   // 2023-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public TimeOrderedIdGenerator(long node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("node must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+    }
+
+    public synchronized long next() {
+        long now = Math.max(System.currentTimeMillis(), lastMillis);
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                while ((now = System.currentTimeMillis()) <= lastMillis) {
+                    Thread.onSpinWait();
+                }
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return ((now - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,81 @@
+package study.querydsl.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.cache.BulkDmlEvent;
+import study.querydsl.event.ChangeEventBus.Change;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/*
+세 가지 쓰기 경로를 모아서 ChangeEventBus 로 보낸다.
+    1. em.persist / remove            -> ChangeCaptureListener (@PostPersist, @PostRemove)
+    2. dirty checking (changeTeam 등) -> ChangeCaptureListener (@PostUpdate)
+    3. 벌크 DML
+        - MemberJpaRepository.bulk* : 대상 id 를 먼저 조회해서 id 목록과 함께 기록 (resolveBulk)
+        - 그 외 Querydsl / JPQL 벌크  : BulkDmlEvent -> UNRESOLVED
+    트랜잭션 안이면 커밋 후에 한 묶음으로, 롤백되면 버린다. 트랜잭션 밖이면 바로 보낸다.
+    기록하는 순간 TransactionalChangeListener 빈들에게도 넘긴다. (같은 트랜잭션의 outbox 등)
+*/
+@Component
+@RequiredArgsConstructor
+public class ChangeCapture {
+
+    private final ChangeEventBus bus;
+    private final List<TransactionalChangeListener> transactionalListeners;
+
+    public void entityChanged(String table, ChangeType type, Long id) {
+        record(new Change(table, type, List.of(id), false));
+    }
+
+    /* 대상 id 를 알고 있는 벌크 DML. 실행 중에 나가는 BulkDmlEvent 는 UNRESOLVED 로 중복 기록하지 않는다. */
+    public <T> T resolveBulk(String table, ChangeType type, List<Long> ids, Supplier<T> dml) {
+        T result = BulkDmlEvent.resolved(dml);
+        bulkChanged(table, type, ids);
+        return result;
+    }
+
+    /* Hibernate 를 거치지 않고 이미 실행된 벌크 쓰기 (querydsl-sql 등) */
+    public void bulkChanged(String table, ChangeType type, List<Long> ids) {
+        if (!ids.isEmpty()) {
+            record(new Change(table, type, List.copyOf(ids), true));
+        }
+    }
+
+    @EventListener
+    public void onUnresolvedBulk(BulkDmlEvent event) {
+        record(new Change(event.table(), ChangeType.UNRESOLVED, List.of(), true));
+    }
+
+    private void record(Change change) {
+        for (TransactionalChangeListener listener : transactionalListeners) {
+            listener.changed(change);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bus.publish(List.of(change));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Change> pending = (List<Change>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Change> changes = new ArrayList<>();
+            pending = changes;
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ChangeCapture.this);
+                    if (status == STATUS_COMMITTED) {
+                        bus.publish(changes);
+                    }
+                }
+            });
+        }
+        pending.add(change);
+    }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import study.querydsl.cache.TableVersions;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/* Member, Team 엔티티 변경 -> ChangeCapture */
+public class ChangeCaptureListener {
+
+    private final ObjectProvider<ChangeCapture> changeCapture;
+
+    public ChangeCaptureListener(ObjectProvider<ChangeCapture> changeCapture) {
+        this.changeCapture = changeCapture;
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        capture(entity, ChangeType.INSERT);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        capture(entity, ChangeType.UPDATE);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        capture(entity, ChangeType.DELETE);
+    }
+
+    private void capture(Object entity, ChangeType type) {
+        if (entity instanceof Member member) {
+            changeCapture.getObject().entityChanged(TableVersions.MEMBER, type, member.getId());
+        } else if (entity instanceof Team team) {
+            changeCapture.getObject().entityChanged(TableVersions.TEAM, type, team.getId());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package study.querydsl.event;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/*
+인프로세스 변경 이벤트 버스
+    - 트랜잭션 하나의 변경은 커밋 후 한 묶음(batch)으로 들어온다. (ChangeCapture)
+    - 묶음 단위로 순서번호를 붙이고, 구독자에게 같은 순서로 전달한다.
+    - 구독자마다 전용 쓰레드(큐)로 전달한다. publish 는 큐에 넣고 바로 돌아오므로
+      커밋하는 쓰레드가 구독자의 DB 조회를 기다리지 않고, 느린 구독자가 다른 구독자를 막지 않는다.
+      한 구독자가 예외를 던져도 로그만 남기고 다음 묶음을 계속 받는다.
+    - 최근 logCapacity 개는 링 버퍼에 남겨서, 늦게 붙은 구독자가 replay(마지막으로 본 번호) 로 따라잡을 수 있다.
+*/
+@Slf4j
+@Component
+public class ChangeEventBus {
+
+    private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+    private final EntityChangeEvent[] history;
+    private long lastSequence;
+
+    public ChangeEventBus(@Value("${querydsl.change-events.log-capacity:10000}") int logCapacity) {
+        this.history = new EntityChangeEvent[logCapacity];
+    }
+
+    /* 구독 이후에 publish 된 묶음부터 받는다. 그 전 것은 replay 로 읽는다. */
+    public synchronized void subscribe(Consumer<List<EntityChangeEvent>> subscriber) {
+        subscribers.add(new Subscription(subscriber, "change-event-" + subscribers.size(), lastSequence));
+    }
+
+    public void unsubscribe(Consumer<List<EntityChangeEvent>> subscriber) {
+        for (Subscription subscription : subscribers) {
+            if (subscription.subscriber == subscriber && subscribers.remove(subscription)) {
+                subscription.stop();
+            }
+        }
+    }
+
+    /* 순서번호를 붙이고 큐에 넣는 것까지 잠가서, 구독자마다 받는 순서 = 순서번호 순서 */
+    public synchronized List<EntityChangeEvent> publish(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return List.of();
+        }
+        Instant now = Instant.now();
+        List<EntityChangeEvent> batch = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            EntityChangeEvent event = new EntityChangeEvent(++lastSequence, change.table(), change.type(),
+                    change.ids(), change.bulk(), now);
+            history[(int) (event.sequence() % history.length)] = event;
+            batch.add(event);
+        }
+        List<EntityChangeEvent> delivered = List.copyOf(batch);
+        for (Subscription subscription : subscribers) {
+            subscription.enqueue(delivered, lastSequence);
+        }
+        return delivered;
+    }
+
+    /* 지금까지 publish 된 묶음이 모든 구독자에게 전달될 때까지 기다린다. (테스트, 종료) */
+    public boolean awaitDelivery(long timeoutMillis) throws InterruptedException {
+        long target = getLastSequence();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (Subscription subscription : subscribers) {
+            if (!subscription.awaitDelivered(target, deadline - System.currentTimeMillis())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.forEach(Subscription::stop);
+    }
+
+    /* afterSequence 다음부터 지금까지. 링 버퍼에서 이미 밀려났으면 예외 -> 구독자는 전체를 다시 읽어야 한다. */
+    public synchronized List<EntityChangeEvent> replay(long afterSequence) {
+        long oldest = Math.max(1, lastSequence - history.length + 1);
+        if (afterSequence + 1 < oldest) {
+            throw new IllegalStateException("events after " + afterSequence + " are no longer retained (oldest " + oldest + ")");
+        }
+        List<EntityChangeEvent> result = new ArrayList<>();
+        for (long seq = afterSequence + 1; seq <= lastSequence; seq++) {
+            result.add(history[(int) (seq % history.length)]);
+        }
+        return result;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public record Change(String table, ChangeType type, List<Long> ids, boolean bulk) {
+    }
+
+    private static final class Subscription {
+
+        private final Consumer<List<EntityChangeEvent>> subscriber;
+        private final ExecutorService executor;
+        private long delivered;     // 이 구독자가 처리를 끝낸(성공이든 실패든) 마지막 순서번호
+
+        Subscription(Consumer<List<EntityChangeEvent>> subscriber, String threadName, long subscribedAt) {
+            this.subscriber = subscriber;
+            this.delivered = subscribedAt;
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        void enqueue(List<EntityChangeEvent> batch, long sequence) {
+            try {
+                executor.execute(() -> deliver(batch, sequence));
+            } catch (RejectedExecutionException e) {
+                log.debug("change event subscriber stopped, dropping events up to {}", sequence);
+            }
+        }
+
+        private void deliver(List<EntityChangeEvent> batch, long sequence) {
+            try {
+                subscriber.accept(batch);
+            } catch (RuntimeException e) {
+                log.warn("change event subscriber failed on events up to {}", sequence, e);
+            } finally {
+                synchronized (this) {
+                    delivered = sequence;
+                    notifyAll();
+                }
+            }
+        }
+
+        synchronized boolean awaitDelivered(long sequence, long timeoutMillis) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            while (delivered < sequence) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(remaining);
+            }
+            return true;
+        }
+
+        void stop() {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package study.querydsl.event;
+
+public enum ChangeType {
+    INSERT, UPDATE, DELETE,
+    // 벌크 DML 인데 영향받은 id 를 모른다. 구독자는 해당 테이블을 다시 읽어야 한다.
+    UNRESOLVED
+}
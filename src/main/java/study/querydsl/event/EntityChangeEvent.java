@@ -0,0 +1,13 @@
+package study.querydsl.event;
+
+import java.time.Instant;
+import java.util.List;
+
+/*
+member / team 변경 이벤트
+    sequence : 버스에 들어간 순서 (커밋 순서). 1 부터 빈틈 없이 증가
+    ids      : 영향받은 id. 엔티티 변경은 1개, 벌크 DML 은 여러개, UNRESOLVED 는 비어 있다.
+*/
+public record EntityChangeEvent(long sequence, String table, ChangeType type, List<Long> ids, boolean bulk,
+                                Instant committedAt) {
+}
@@ -0,0 +1,13 @@
+package study.querydsl.event;
+
+import study.querydsl.event.ChangeEventBus.Change;
+
+/*
+ChangeCapture 가 변경을 기록하는 순간(커밋 전, 변경한 트랜잭션 안에서) 받는 쪽. 빈으로 등록하면 ChangeCapture 가 모두 부른다.
+    커밋 후에 받는 ChangeEventBus 구독과 달리, 같은 트랜잭션에 무언가를 더 쓸 때 쓴다. (MemberOutboxWriter)
+    트랜잭션 밖의 변경도 그대로 넘어오므로, 트랜잭션이 필요하면 구현체가 확인한다.
+*/
+public interface TransactionalChangeListener {
+
+    void changed(Change change);
+}
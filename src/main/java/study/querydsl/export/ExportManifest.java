@@ -0,0 +1,16 @@
+package study.querydsl.export;
+
+import java.time.Instant;
+import java.util.List;
+
+/*
+export 결과 (manifest.json)
+    format
+        csv : memberId,username,age,teamId,teamName (헤더 한 줄)
+        mtc : [row group 길이(int32, big-endian) | MemberTeamBinaryCodec 인코딩] 반복
+*/
+public record ExportManifest(Instant startedAt, Instant finishedAt, long rows, List<ExportFile> files) {
+
+    public record ExportFile(String name, String format, long fromId, long toId, long rows, long bytes) {
+    }
+}
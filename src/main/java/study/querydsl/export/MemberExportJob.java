@@ -0,0 +1,243 @@
+package study.querydsl.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.StatementOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.codec.MemberTeamBinaryCodec;
+import study.querydsl.export.ExportManifest.ExportFile;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static study.querydsl.sql.SMember.member;
+import static study.querydsl.sql.STeam.team;
+
+/*
+member + team 이름 전체 export (range 병렬)
+    1. member_id 의 min ~ max 를 parallelism * 4 개 구간으로 나눈다. (구간마다 걸리는 시간이 달라도 worker 가 고르게 바쁘도록)
+    2. 구간마다 worker 가 자기 커넥션(read-only)으로 member_id between 구간을 id 순으로 스트리밍해서 읽는다. (fetchSize)
+    3. 구간마다 csv, mtc 파일 두 개를 버퍼 달린 FileChannel 로 쓴다.
+       mtc 는 rowGroupSize 행씩 MemberTeamBinaryCodec 으로 인코딩 -> worker 메모리는 행 수와 상관없이 row group 하나 크기
+    4. 모든 구간이 끝나면 manifest.json 을 임시 파일에 쓰고 이름을 바꾼다. manifest 가 있으면 export 완료.
+    구간마다 커넥션이 다르므로 구간 사이 스냅샷은 같지 않다. (export 중 쓰기가 있으면 구간마다 시점이 조금씩 다르다)
+*/
+@Slf4j
+@Component
+public class MemberExportJob {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int CHANNEL_BUFFER = 64 * 1024;
+
+    private final DataSource dataSource;
+    private final com.querydsl.sql.Configuration configuration;
+    private final ObjectMapper objectMapper;
+    private final int parallelism;
+    private final int rowGroupSize;
+
+    public MemberExportJob(DataSource dataSource,
+                           com.querydsl.sql.Configuration configuration,
+                           ObjectMapper objectMapper,
+                           @Value("${querydsl.export.parallelism:0}") int parallelism,
+                           @Value("${querydsl.export.row-group-size:8192}") int rowGroupSize) {
+        this.dataSource = dataSource;
+        this.configuration = configuration;
+        this.objectMapper = objectMapper;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    public ExportManifest export(Path directory) throws IOException {
+        Instant startedAt = Instant.now();
+        Files.createDirectories(directory);
+        List<long[]> ranges = ranges();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, ranges.size())));
+        List<ExportFile> files = new ArrayList<>();
+        try {
+            List<Future<List<ExportFile>>> futures = new ArrayList<>(ranges.size());
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] range = ranges.get(i);
+                String baseName = String.format("members-%04d", i);
+                futures.add(executor.submit(() -> exportRange(directory, baseName, range[0], range[1])));
+            }
+            for (Future<List<ExportFile>> future : futures) {
+                files.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("export interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("export failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long rows = files.stream().filter(file -> file.format().equals("csv")).mapToLong(ExportFile::rows).sum();
+        ExportManifest manifest = new ExportManifest(startedAt, Instant.now(), rows, files);
+        Path temp = directory.resolve("manifest.json.tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), manifest);
+        Files.move(temp, directory.resolve("manifest.json"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("exported {} members into {} files in {}", rows, files.size(), directory);
+        return manifest;
+    }
+
+    /* [from, to] 닫힌 구간 목록. 테이블이 비어 있으면 빈 목록 */
+    private List<long[]> ranges() {
+        Tuple bounds = withConnection(connection -> new SQLQuery<Void>(connection, configuration)
+                .select(member.memberId.min(), member.memberId.max())
+                .from(member)
+                .fetchOne());
+        Long min = bounds == null ? null : bounds.get(0, Long.class);
+        Long max = bounds == null ? null : bounds.get(1, Long.class);
+        if (min == null || max == null) {
+            return List.of();
+        }
+        long span = max - min + 1;
+        long count = Math.max(1, Math.min(span, (long) parallelism * 4));
+        long step = (span + count - 1) / count;
+        List<long[]> ranges = new ArrayList<>();
+        for (long from = min; from <= max; from += step) {
+            ranges.add(new long[]{from, Math.min(max, from + step - 1)});
+            if (from > Long.MAX_VALUE - step) {
+                break;
+            }
+        }
+        return ranges;
+    }
+
+    private List<ExportFile> exportRange(Path directory, String baseName, long fromId, long toId) {
+        Path csvFile = directory.resolve(baseName + ".csv");
+        Path mtcFile = directory.resolve(baseName + ".mtc");
+        return withConnection(connection -> {
+            try (FileChannel csvChannel = open(csvFile);
+                 Writer csv = new BufferedWriter(Channels.newWriter(csvChannel, StandardCharsets.UTF_8), CHANNEL_BUFFER);
+                 FileChannel mtc = open(mtcFile)) {
+                csv.write("memberId,username,age,teamId,teamName\n");
+                List<MemberTeamDto> rowGroup = new ArrayList<>(rowGroupSize);
+                long rows = 0;
+                SQLQuery<Tuple> query = new SQLQuery<Void>(connection, configuration)
+                        .select(member.memberId, member.username, member.age, member.teamId, team.name)
+                        .from(member)
+                        .leftJoin(team).on(member.teamId.eq(team.teamId))
+                        .where(member.memberId.between(fromId, toId))
+                        .orderBy(member.memberId.asc());
+                query.setStatementOptions(StatementOptions.builder().setFetchSize(FETCH_SIZE).build());
+                try (var iterator = query.iterate()) {
+                    while (iterator.hasNext()) {
+                        Tuple tuple = iterator.next();
+                        MemberTeamDto row = new MemberTeamDto(tuple.get(member.memberId), tuple.get(member.username),
+                                intValue(tuple, member.age), tuple.get(member.teamId), tuple.get(team.name));
+                        writeCsv(csv, row);
+                        rowGroup.add(row);
+                        if (rowGroup.size() == rowGroupSize) {
+                            writeRowGroup(mtc, rowGroup);
+                            rowGroup.clear();
+                        }
+                        rows++;
+                    }
+                }
+                if (!rowGroup.isEmpty()) {
+                    writeRowGroup(mtc, rowGroup);
+                }
+                csv.flush();
+                return List.of(
+                        new ExportFile(csvFile.getFileName().toString(), "csv", fromId, toId, rows, csvChannel.size()),
+                        new ExportFile(mtcFile.getFileName().toString(), "mtc", fromId, toId, rows, mtc.size()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static int intValue(Tuple tuple, NumberPath<Integer> path) {
+        Integer value = tuple.get(path);
+        return value == null ? 0 : value;
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void writeCsv(Writer csv, MemberTeamDto row) throws IOException {
+        csv.write(String.valueOf(row.getMemberId()));
+        csv.write(',');
+        csv.write(escape(row.getUsername()));
+        csv.write(',');
+        csv.write(String.valueOf(row.getAge()));
+        csv.write(',');
+        csv.write(row.getTeamId() == null ? "" : String.valueOf(row.getTeamId()));
+        csv.write(',');
+        csv.write(escape(row.getTeamName()));
+        csv.write('\n');
+    }
+
+    /* null 은 빈 칸, 빈 문자열은 "" (loadCsv 는 따옴표 없는 빈 칸만 null 로 읽는다) */
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.isEmpty()) {
+            return "\"\"";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void writeRowGroup(FileChannel channel, List<MemberTeamDto> rowGroup) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(rowGroup.size() * 16 + 64);
+        MemberTeamBinaryCodec.encode(MemberTeamBinaryCodec.MemberTeamChunk.ofList(rowGroup), encoded);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + encoded.size());
+        buffer.putInt(encoded.size()).put(encoded.toByteArray()).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private <T> T withConnection(ConnectionCallback<T> callback) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            try {
+                return callback.doInConnection(connection);
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("export query failed", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionCallback<T> {
+        T doInConnection(Connection connection) throws SQLException;
+    }
+}
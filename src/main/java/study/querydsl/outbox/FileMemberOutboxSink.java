@@ -0,0 +1,56 @@
+package study.querydsl.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import study.querydsl.entity.MemberOutbox;
+import study.querydsl.event.ChangeType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/* 외부 큐 대신 쓰는 기본 sink. batch 하나를 JSON lines 로 파일 끝에 붙이고 디스크에 내린 뒤 반환한다. */
+public class FileMemberOutboxSink implements MemberOutboxSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileMemberOutboxSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void deliver(List<MemberOutbox> batch) throws IOException {
+        StringBuilder lines = new StringBuilder(batch.size() * 128);
+        for (MemberOutbox outbox : batch) {
+            lines.append(objectMapper.writeValueAsString(Message.of(outbox))).append('\n');
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    record Message(Long outboxId, Long memberId, ChangeType type, String username, Integer age, Long teamId,
+                   Instant createdAt) {
+
+        static Message of(MemberOutbox outbox) {
+            return new Message(outbox.getId(), outbox.getMemberId(), outbox.getChangeType(), outbox.getUsername(),
+                    outbox.getAge(), outbox.getTeamId(), outbox.getCreatedAt());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package study.querydsl.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Path;
+
+/* outbox relay (querydsl.outbox.relay.enabled=true). 다른 MemberOutboxSink 빈이 있으면 파일 sink 대신 그걸 쓴다. */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "querydsl.outbox.relay", name = "enabled", havingValue = "true")
+public class MemberOutboxConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(MemberOutboxSink.class)
+    public MemberOutboxSink fileMemberOutboxSink(@Value("${querydsl.outbox.relay.file:build/outbox/member-changes.jsonl}") Path file,
+                                                 ObjectMapper objectMapper) {
+        return new FileMemberOutboxSink(file, objectMapper);
+    }
+}
@@ -0,0 +1,121 @@
+package study.querydsl.outbox;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.LockModeType;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.LockOptions;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.MemberOutbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static study.querydsl.entity.QMemberOutbox.memberOutbox;
+
+/*
+member_outbox -> MemberOutboxSink (querydsl.outbox.relay.enabled=true 일 때만)
+    - batchSize 개씩 id 순으로 가져오면서 행 잠금을 건다. 이미 다른 relay 가 잡은 행은 건너뛴다. (FOR UPDATE SKIP LOCKED)
+      그래서 relay 를 여러 노드에서 띄워도 같은 행을 두 번 보내지 않는다.
+      (H2 방언은 SKIP LOCKED 를 지원하지 않아서 그냥 FOR UPDATE 로 나간다. 기다릴 뿐 결과는 같다.)
+    - 전달이 끝나면 같은 트랜잭션에서 그 id 들을 한번에 지운다.
+      전달 후 커밋 전에 죽으면 다시 보낸다. = at-least-once
+    - 꽉 찬 batch 가 나오면 쉬지 않고 바로 다음 batch 를 가져온다.
+    - 지표 : 전달 건수 / 실패 batch 수 / lag (가장 오래된 미전달 행이 기다린 시간)
+*/
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "querydsl.outbox.relay", name = "enabled", havingValue = "true")
+public class MemberOutboxRelay {
+
+    private final JPAQueryFactory jpaQueryFactory;
+    private final MemberOutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong failedBatchCount = new AtomicLong();
+    private volatile long lagMillis;
+
+    public MemberOutboxRelay(JPAQueryFactory jpaQueryFactory,
+                             MemberOutboxSink sink,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${querydsl.outbox.relay.batch-size:500}") int batchSize) {
+        this.jpaQueryFactory = jpaQueryFactory;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${querydsl.outbox.relay.poll-interval-ms:1000}")
+    public void poll() {
+        try {
+            while (relayBatch() == batchSize) {
+                // 밀려 있으면 계속 비운다.
+            }
+        } catch (RuntimeException e) {
+            failedBatchCount.incrementAndGet();
+            log.warn("member outbox relay failed, will retry on next poll", e);
+        }
+    }
+
+    /* batch 하나를 전달하고 지운다. 전달한 건수를 돌려준다. */
+    public int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<MemberOutbox> batch = jpaQueryFactory
+                    .selectFrom(memberOutbox)
+                    .orderBy(memberOutbox.id.asc())
+                    .limit(batchSize)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .setHint(AvailableSettings.JAKARTA_LOCK_TIMEOUT, LockOptions.SKIP_LOCKED)
+                    .fetch();
+            if (batch.isEmpty()) {
+                lagMillis = 0;
+                return 0;
+            }
+            lagMillis = Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis();
+            try {
+                sink.deliver(batch);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            jpaQueryFactory
+                    .delete(memberOutbox)
+                    .where(memberOutbox.id.in(batch.stream().map(MemberOutbox::getId).toList()))
+                    .execute();
+            return batch.size();
+        });
+        int count = relayed == null ? 0 : relayed;
+        if (count > 0) {
+            deliveredCount.addAndGet(count);
+            batchCount.incrementAndGet();
+        }
+        return count;
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public long getFailedBatchCount() {
+        return failedBatchCount.get();
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+}
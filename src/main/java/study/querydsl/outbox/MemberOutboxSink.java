@@ -0,0 +1,16 @@
+package study.querydsl.outbox;
+
+import study.querydsl.entity.MemberOutbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/*
+outbox relay 가 전달할 곳. (메시지 큐, 다른 서비스 등)
+    - deliver 가 정상 반환하면 전달된 것으로 보고 outbox 에서 지운다.
+    - 예외를 던지면 그 batch 는 남아서 다음 polling 때 다시 전달된다. (at-least-once, 받는 쪽은 outboxId 로 중복 제거)
+*/
+public interface MemberOutboxSink {
+
+    void deliver(List<MemberOutbox> batch) throws IOException;
+}
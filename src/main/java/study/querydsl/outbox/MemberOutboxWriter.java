@@ -0,0 +1,158 @@
+package study.querydsl.outbox;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.cache.TableVersions;
+import study.querydsl.entity.MemberOutbox;
+import study.querydsl.event.ChangeEventBus.Change;
+import study.querydsl.event.ChangeType;
+import study.querydsl.event.TransactionalChangeListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static study.querydsl.entity.QMember.member;
+
+/*
+Member 변경을 같은 트랜잭션 안에서 member_outbox 에 남긴다. (dual write 없음)
+    - ChangeCapture 가 변경을 넘겨주면(TransactionalChangeListener) member 것만 골라서 트랜잭션마다 하나씩 Hibernate BeforeTransactionCompletionProcess 를 건다.
+      커밋 때 flush 가 끝난 다음에 실행되므로, 커밋 flush 에서야 나가는 dirty checking(changeTeam) 까지 다 모인다.
+    - 실행 시점에는 원래 세션이 flush 중이 아니므로 같은 커넥션을 쓰는 임시 세션으로 쓴다. (Envers 와 같은 방식)
+    - 한 트랜잭션 안의 같은 member 변경은 하나로 합친다. (INSERT 후 UPDATE = INSERT, INSERT 후 DELETE = 없음)
+    - 롤백되면 process 가 실행되지 않으므로 아무것도 남지 않는다.
+    - 트랜잭션 밖의 변경은 남길 곳이 없으므로 경고만 남긴다.
+*/
+@Slf4j
+@Component
+public class MemberOutboxWriter implements TransactionalChangeListener {
+
+    private static final int SNAPSHOT_CHUNK = 500;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public void changed(Change change) {
+        if (!TableVersions.MEMBER.equals(change.table())) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            log.warn("member change outside a transaction is not written to the outbox: {} {}", change.type(), change.ids());
+            return;
+        }
+        pending().add(change.type(), change.ids());
+    }
+
+    private Pending pending() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Pending created = new Pending();
+            pending = created;
+            em.unwrap(EventSource.class).getActionQueue().registerProcess(created);
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MemberOutboxWriter.this);
+                }
+            });
+        }
+        return pending;
+    }
+
+    private static class Pending implements BeforeTransactionCompletionProcess {
+
+        private final Map<Long, ChangeType> changes = new LinkedHashMap<>();
+        private boolean unresolved;
+
+        void add(ChangeType type, List<Long> ids) {
+            if (type == ChangeType.UNRESOLVED) {
+                unresolved = true;
+                return;
+            }
+            for (Long id : ids) {
+                ChangeType previous = changes.get(id);
+                if (previous == ChangeType.INSERT && type == ChangeType.DELETE) {
+                    changes.remove(id);
+                } else if (previous != ChangeType.INSERT) {
+                    changes.put(id, type);
+                }
+            }
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            if (changes.isEmpty() && !unresolved) {
+                return;
+            }
+            Session temporarySession = session.sessionWithOptions()
+                    .connection()
+                    .autoClose(false)
+                    .connectionHandlingMode(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION)
+                    .openSession();
+            try {
+                write(temporarySession);
+                temporarySession.flush();
+            } finally {
+                temporarySession.close();
+            }
+        }
+
+        private void write(Session session) {
+            Instant now = Instant.now();
+            Map<Long, Tuple> snapshots = snapshots(session);
+            for (Map.Entry<Long, ChangeType> change : changes.entrySet()) {
+                Long memberId = change.getKey();
+                Tuple row = snapshots.get(memberId);
+                if (change.getValue() == ChangeType.DELETE || row == null) {
+                    session.persist(new MemberOutbox(memberId, ChangeType.DELETE, null, null, null, now));
+                } else {
+                    session.persist(new MemberOutbox(memberId, change.getValue(),
+                            row.get(member.username), row.get(member.age), row.get(member.team.id), now));
+                }
+            }
+            if (unresolved) {
+                session.persist(new MemberOutbox(null, ChangeType.UNRESOLVED, null, null, null, now));
+            }
+        }
+
+        /* INSERT / UPDATE 대상의 커밋 직전 값. in 절을 잘라서 읽는다. */
+        private Map<Long, Tuple> snapshots(Session session) {
+            List<Long> ids = new ArrayList<>();
+            changes.forEach((id, type) -> {
+                if (type != ChangeType.DELETE) {
+                    ids.add(id);
+                }
+            });
+            Map<Long, Tuple> snapshots = new HashMap<>(ids.size() * 2);
+            JPAQueryFactory queryFactory = new JPAQueryFactory(session);
+            for (int from = 0; from < ids.size(); from += SNAPSHOT_CHUNK) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + SNAPSHOT_CHUNK));
+                List<Tuple> rows = queryFactory
+                        .select(member.id, member.username, member.age, member.team.id)
+                        .from(member)
+                        .where(member.id.in(chunk))
+                        .fetch();
+                for (Tuple row : rows) {
+                    snapshots.put(row.get(member.id), row);
+                }
+            }
+            return snapshots;
+        }
+    }
+}
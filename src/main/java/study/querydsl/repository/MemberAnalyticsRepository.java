@@ -0,0 +1,89 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.MemberAgeStatsDto;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+상관 서브쿼리 대신 윈도우 함수로 한번에 읽는 통계 조회
+    select(memberSub.age.avg()).from(memberSub).where(memberSub.team.eq(member.team)) 같은 형태는
+    바깥 행마다 집계를 다시 한다. 윈도우 함수는 member 를 한번 읽으면서 파티션별 집계를 같이 낸다.
+    JPQL / Querydsl-JPA 에는 OVER 절이 없어서 네이티브 SQL 로 쓴다. (컬럼 이름은 Member / Team 매핑 기준)
+*/
+@Repository
+@RequiredArgsConstructor
+public class MemberAnalyticsRepository {
+
+    private final EntityManager em;
+
+    /* 회원 + 팀 평균 나이 + 전체 평균 나이 */
+    public List<MemberAgeStatsDto> findWithAverageAge() {
+        List<?> rows = em.createNativeQuery("""
+                        select m.member_id, m.username, m.age, m.team_id, t.name,
+                               case when m.team_id is null then null
+                                    else avg(cast(m.age as double precision)) over (partition by m.team_id) end,
+                               avg(cast(m.age as double precision)) over ()
+                        from member m
+                        left join team t on t.team_id = m.team_id
+                        order by m.member_id""")
+                .getResultList();
+        List<MemberAgeStatsDto> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            result.add(new MemberAgeStatsDto(
+                    toLong(columns[0]),
+                    (String) columns[1],
+                    ((Number) columns[2]).intValue(),
+                    toLong(columns[3]),
+                    (String) columns[4],
+                    columns[5] == null ? null : ((Number) columns[5]).doubleValue(),
+                    ((Number) columns[6]).doubleValue()));
+        }
+        return result;
+    }
+
+    /* 팀별 최고령 회원. 같은 나이가 여럿이면 모두 (= age = max(age) 서브쿼리와 같은 결과) */
+    public List<MemberTeamDto> findOldestPerTeam() {
+        return ranked("rank() over (partition by m.team_id order by m.age desc)", 1);
+    }
+
+    /* 팀별 나이 많은 순 상위 n 명. 같은 나이는 member_id 순으로 끊는다. */
+    public List<MemberTeamDto> findTopNPerTeam(int n) {
+        return ranked("row_number() over (partition by m.team_id order by m.age desc, m.member_id)", n);
+    }
+
+    private List<MemberTeamDto> ranked(String rankExpression, int maxRank) {
+        List<?> rows = em.createNativeQuery("""
+                        select r.member_id, r.username, r.age, r.team_id, t.name
+                        from (
+                            select m.member_id, m.username, m.age, m.team_id, %s as rnk
+                            from member m
+                            where m.team_id is not null
+                        ) r
+                        join team t on t.team_id = r.team_id
+                        where r.rnk <= :maxRank
+                        order by r.team_id, r.rnk, r.member_id""".formatted(rankExpression))
+                .setParameter("maxRank", maxRank)
+                .getResultList();
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            result.add(new MemberTeamDto(
+                    toLong(columns[0]),
+                    (String) columns[1],
+                    ((Number) columns[2]).intValue(),
+                    toLong(columns[3]),
+                    (String) columns[4]));
+        }
+        return result;
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+}
@@ -1,6 +1,9 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.QTuple;
 import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
@@ -8,18 +11,31 @@ import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
+import study.querydsl.cache.TableVersions;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
+import study.querydsl.event.ChangeCapture;
+import study.querydsl.event.ChangeType;
+import study.querydsl.repository.shard.ShardedMemberRepository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
@@ -30,6 +46,12 @@ public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory jpaQueryFactory;  // Querydsl을 쓰려면~!
+    private final ObjectProvider<MemberWriteBehindQueue> writeBehindQueue;
+    private final ChangeCapture changeCapture;
+    private final UsernameSearchPredicates usernamePredicates;   // usernamePrefix / usernameContains (UsernameIndex)
+    private final ObjectProvider<ShardedMemberRepository> shardedRepository;  // querydsl.shard.count 가 있으면 검색은 샤드로
+
+    private static final int MAX_IN_SIZE = 512;
 
 
     public void save(Member member) {
@@ -37,6 +59,15 @@ public class MemberJpaRepository {
 
     }
 
+    /* write-behind 모드 (querydsl.write-behind.enabled=true). 커밋되면 id 로 완료된다. */
+    public CompletableFuture<Long> saveAsync(Member member) {
+        MemberWriteBehindQueue queue = writeBehindQueue.getIfAvailable();
+        if (queue == null) {
+            throw new IllegalStateException("write-behind mode is disabled (querydsl.write-behind.enabled)");
+        }
+        return queue.submit(member);
+    }
+
     public Optional<Member> findById(Long id) {
         Member findMember = em.find(Member.class, id);
         return Optional.ofNullable(findMember);
@@ -69,6 +100,100 @@ public class MemberJpaRepository {
     }
 
 
+    /*
+    일괄 조회 - findById / findByUsername 을 루프로 부르는 대신 in (...) 한번(또는 청크 몇번)
+        - Hibernate multiLoad : 영속성 컨텍스트, 2차 캐시에 이미 있는 id 는 쿼리에서 빼고, 결과를 입력 순서로 돌려준다.
+        - in 절 크기는 hibernate.query.in_clause_parameter_padding 으로 2의 거듭제곱에 맞춘다. (plan cache 가 작게 유지된다)
+        - 없는 키, null 키는 빠진다.
+    */
+    public List<Member> findAllByIds(Collection<Long> ids) {
+        List<Long> keys = ids.stream().filter(Objects::nonNull).toList();
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        return em.unwrap(Session.class)
+                .byMultipleIds(Member.class)
+                .enableSessionCheck(true)
+                .withBatchSize(MAX_IN_SIZE)
+                .multiLoad(keys)
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /* username 은 유일하지 않으므로 입력 순서대로, 같은 username 안에서는 id 순으로 모두 돌려준다. */
+    public List<Member> findAllByUsernames(Collection<String> usernames) {
+        Map<String, List<Member>> found = new HashMap<>();
+        List<String> keys = usernames.stream().filter(Objects::nonNull).distinct().toList();
+        for (List<String> chunk : chunks(keys)) {
+            List<Member> members = jpaQueryFactory
+                    .selectFrom(member)
+                    .where(member.username.in(chunk))
+                    .orderBy(member.id.asc())
+                    .fetch();
+            for (Member findMember : members) {
+                found.computeIfAbsent(findMember.getUsername(), k -> new ArrayList<>()).add(findMember);
+            }
+        }
+
+        List<Member> result = new ArrayList<>();
+        for (String username : keys) {
+            result.addAll(found.getOrDefault(username, List.of()));
+        }
+        return result;
+    }
+
+    /*
+    벌크 연산 - 대상 id 를 먼저 읽고, 그 id 들에만 update/delete 를 날린다.
+        영향받은 id 가 정확히 정해지므로 변경 이벤트(ChangeCapture)에 id 목록을 같이 남길 수 있다.
+        where 에는 member 의 경로만 쓴다. (조인 없음)
+        벌크 연산은 영속성 컨텍스트를 무시하므로 앞에서 flush, 끝나고 clear 한다.
+    */
+    public long bulkAddAge(Predicate where, int delta) {
+        em.flush();
+        List<Long> ids = jpaQueryFactory.select(member.id).from(member).where(where).fetch();
+        long count = changeCapture.resolveBulk(TableVersions.MEMBER, ChangeType.UPDATE, ids, () -> {
+            long updated = 0;
+            for (List<Long> chunk : chunks(ids)) {
+                updated += jpaQueryFactory
+                        .update(member)
+                        .set(member.age, member.age.add(delta))
+                        .where(member.id.in(chunk))
+                        .execute();
+            }
+            return updated;
+        });
+        em.clear();
+        return count;
+    }
+
+    public long bulkDelete(Predicate where) {
+        em.flush();
+        List<Long> ids = jpaQueryFactory.select(member.id).from(member).where(where).fetch();
+        long count = changeCapture.resolveBulk(TableVersions.MEMBER, ChangeType.DELETE, ids, () -> {
+            long deleted = 0;
+            for (List<Long> chunk : chunks(ids)) {
+                deleted += jpaQueryFactory
+                        .delete(member)
+                        .where(member.id.in(chunk))
+                        .execute();
+            }
+            return deleted;
+        });
+        em.clear();
+        return count;
+    }
+
+    /* in 절 하나에 MAX_IN_SIZE 개까지. 크기 맞추기(padding)는 Hibernate 설정이 한다. */
+    private static <T> List<List<T>> chunks(List<T> keys) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += MAX_IN_SIZE) {
+            chunks.add(keys.subList(from, Math.min(from + MAX_IN_SIZE, keys.size())));
+        }
+        return chunks;
+    }
+
+
     /*
     동적쿼리
         BooleanBuilder
@@ -106,6 +231,10 @@ public class MemberJpaRepository {
     }
 
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        ShardedMemberRepository sharded = shardedRepository.getIfAvailable();
+        if (sharded != null) {
+            return sharded.search(condition);
+        }
         return jpaQueryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
@@ -120,12 +249,43 @@ public class MemberJpaRepository {
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
+                        ageLoe(condition.getAgeLoe()),
+                        usernamePredicates.usernamePrefix(condition.getUsernamePrefix()),
+                        usernamePredicates.usernameContains(condition.getUsernameContains())
                 )
                 .fetch();
     }
 
 
+    /*
+    DTO 를 만들지 않고 row 를 그대로 흘려보낸다. (MemberJsonWriter 용)
+        select 순서: member.id, member.username, member.age, team.id, team.name
+        Stream 은 트랜잭션 안에서 열고 닫아야 한다.
+        샤드 모드는 샤드별 결과를 모은 뒤 같은 모양의 Tuple 로 바꿔서 흘린다. (DB 커서 스트리밍은 아니다)
+    */
+    public Stream<Tuple> searchStream(MemberSearchCondition condition) {
+        ShardedMemberRepository sharded = shardedRepository.getIfAvailable();
+        if (sharded != null) {
+            QTuple row = Projections.tuple(member.id, member.username, member.age, team.id, team.name);
+            return sharded.search(condition).stream()
+                    .map(dto -> row.newInstance(dto.getMemberId(), dto.getUsername(), dto.getAge(), dto.getTeamId(), dto.getTeamName()));
+        }
+        return jpaQueryFactory
+                .select(member.id, member.username, member.age, team.id, team.name)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()),
+                        usernamePredicates.usernamePrefix(condition.getUsernamePrefix()),
+                        usernamePredicates.usernameContains(condition.getUsernameContains())
+                )
+                .stream();
+    }
+
+
     /*
     한번에 합치는게 가능하다!
 
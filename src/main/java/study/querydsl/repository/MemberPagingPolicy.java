@@ -0,0 +1,186 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+검색 페이징 정책 (MemberRepositoryImpl)
+    1. 페이지 크기는 maxPageSize 까지만 (넘으면 잘라낸다)
+    2. 정렬은 인덱스가 있는 경로만 허용 (화이트리스트) -> 아니면 400
+        PathBuilder 로 아무 프로퍼티나 정렬하던 것을 막는다.
+        프로퍼티 이름은 MemberTeamDto 필드 기준 (memberId, username, age, teamId, teamName)
+    3. 여러 컬럼 정렬 가능. 마지막에는 항상 member.id 를 붙여서 페이지 경계가 흔들리지 않게 한다.
+    4. offset 은 maxOffset 까지만. 넘으면 정렬과 상관없이 400
+        (offset N 은 정렬 기준이 무엇이든 N 건을 읽고 버리므로, 깊은 페이지는 커서로만 읽는다)
+    5. 커서(after = 이전 페이지의 마지막 memberId): member_id 정렬(또는 정렬 없음)에서만 허용
+        member_id > after (desc 면 <) 로 PK 인덱스에서 바로 시작 위치를 찾는다. 깊이와 상관없이 비용이 같다.
+*/
+@Component
+public class MemberPagingPolicy {
+
+    private static final Map<String, ComparableExpressionBase<?>> JOINED_SORTABLE = Map.of(
+            "memberId", member.id,
+            "id", member.id,
+            "username", member.username,    // idx_member_username (username, member_id)
+            "age", member.age,              // idx_member_age (age, member_id)
+            "teamId", member.team.id,       // idx_member_team (team_id, member_id), 조인 없이 FK 로 정렬
+            "teamName", team.name           // idx_team_name
+    );
+
+    // querydsl.search.denormalized-team-name=true : teamName 은 member.team_name 으로 정렬 (조인 없음)
+    private static final Map<String, ComparableExpressionBase<?>> DENORMALIZED_SORTABLE = Map.of(
+            "memberId", member.id,
+            "id", member.id,
+            "username", member.username,
+            "age", member.age,
+            "teamId", member.team.id,
+            "teamName", member.teamName     // idx_member_team_name (team_name, member_id)
+    );
+
+    /*
+    member 테이블의 인덱스 컬럼 순서. (Member 의 @Table(indexes) 와 맞춰야 한다)
+    정렬이 이 중 하나의 앞부분과 같고 방향이 모두 같으면 인덱스 순서대로 읽을 수 있다. (filesort 없음)
+    */
+    private static final List<List<Expression<?>>> INDEX_ORDERS = List.of(
+            List.of(member.id),
+            List.of(member.username, member.id),
+            List.of(member.age, member.id),
+            List.of(member.team.id, member.id),
+            List.of(member.teamName, member.id)
+    );
+
+    private final int maxPageSize;
+    private final long maxOffset;
+    private final boolean denormalizedTeamName;
+    private final Map<String, ComparableExpressionBase<?>> sortable;
+
+    public MemberPagingPolicy(int maxPageSize, long maxOffset) {
+        this(maxPageSize, maxOffset, false);
+    }
+
+    @Autowired
+    public MemberPagingPolicy(@Value("${querydsl.paging.max-page-size:100}") int maxPageSize,
+                              @Value("${querydsl.paging.max-offset:1000}") long maxOffset,
+                              @Value("${querydsl.search.denormalized-team-name:false}") boolean denormalizedTeamName) {
+        this.maxPageSize = maxPageSize;
+        this.maxOffset = maxOffset;
+        this.denormalizedTeamName = denormalizedTeamName;
+        this.sortable = denormalizedTeamName ? DENORMALIZED_SORTABLE : JOINED_SORTABLE;
+    }
+
+    /* true 이면 검색이 team 조인 대신 member.team_name 을 쓴다. (MemberRepositoryImpl) */
+    public boolean isDenormalizedTeamName() {
+        return denormalizedTeamName;
+    }
+
+    public PagePlan plan(Pageable pageable) {
+        return plan(pageable, null);
+    }
+
+    public PagePlan plan(Pageable pageable, Long after) {
+        Pageable limited = pageable.isUnpaged()
+                ? PageRequest.of(0, maxPageSize, pageable.getSort())
+                : pageable.getPageSize() > maxPageSize
+                    ? PageRequest.of(pageable.getPageNumber(), maxPageSize, pageable.getSort())
+                    : pageable;
+
+        List<OrderSpecifier<?>> orders = orderSpecifiers(limited.getSort());
+        boolean idOnly = orders.size() == 1;    // tie-breaker 하나만 남았다 = member_id 정렬
+
+        if (after != null) {
+            if (!idOnly) {
+                throw new PagingPolicyViolationException("cursor paging (after) is only available sorted by memberId");
+            }
+            // 커서가 시작 위치를 정하므로 page 번호(offset)는 쓰지 않는다.
+            return new PagePlan(PageRequest.of(0, limited.getPageSize(), limited.getSort()), orders, after);
+        }
+        if (limited.getOffset() > maxOffset) {
+            throw new PagingPolicyViolationException("offset " + limited.getOffset() + " exceeds " + maxOffset
+                    + "; use after=<last memberId> sorted by memberId for deeper pages");
+        }
+        return new PagePlan(limited, orders, null);
+    }
+
+    /*
+    정렬이 member 인덱스 순서와 같아서 DB 가 따로 정렬하지 않아도 되는지. 허용되지 않는 정렬은 false
+        검색 비용 분류(SearchCostClassifier)가 쓴다. 실제 실행계획과 맞는지는 MemberSearchPlanTest 가 확인한다.
+    */
+    public boolean isIndexOrdered(Sort sort) {
+        try {
+            return isIndexOrdered(orderSpecifiers(sort));
+        } catch (PagingPolicyViolationException e) {
+            return false;
+        }
+    }
+
+    /* 화이트리스트 경로로 바꾸고, 중복 제거 후 member.id 를 tie-breaker 로 붙인다. */
+    private List<OrderSpecifier<?>> orderSpecifiers(Sort sort) {
+        Map<Expression<?>, OrderSpecifier<?>> orders = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            ComparableExpressionBase<?> path = sortable.get(order.getProperty());
+            if (path == null) {
+                throw new PagingPolicyViolationException("sort not allowed: " + order.getProperty()
+                        + " (allowed: " + sortable.keySet() + ")");
+            }
+            orders.putIfAbsent(path, order.isAscending() ? path.asc() : path.desc());
+        }
+        if (!orders.containsKey(member.id)) {
+            // 방향을 앞 정렬과 맞춰야 인덱스를 한 방향으로 읽을 수 있다.
+            boolean ascending = orders.isEmpty() || lastOf(orders).isAscending();
+            orders.put(member.id, ascending ? member.id.asc() : member.id.desc());
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    private OrderSpecifier<?> lastOf(Map<Expression<?>, OrderSpecifier<?>> orders) {
+        OrderSpecifier<?> last = null;
+        for (OrderSpecifier<?> order : orders.values()) {
+            last = order;
+        }
+        return last;
+    }
+
+    private boolean isIndexOrdered(List<OrderSpecifier<?>> orders) {
+        boolean ascending = orders.get(0).isAscending();
+        List<Expression<?>> targets = new ArrayList<>();
+        for (OrderSpecifier<?> order : orders) {
+            if (order.isAscending() != ascending) {
+                return false;
+            }
+            targets.add(order.getTarget());
+        }
+        for (List<Expression<?>> index : INDEX_ORDERS) {
+            if (targets.size() <= index.size() && index.subList(0, targets.size()).equals(targets)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* after != null 이면 offset 대신 커서(member_id 경계값)로 페이지를 읽는다. 이때 orders 는 member.id 정렬 하나뿐이다. */
+    public record PagePlan(Pageable pageable, List<OrderSpecifier<?>> orders, Long after) {
+
+        public boolean keyset() {
+            return after != null;
+        }
+
+        public boolean ascending() {
+            return orders.get(0).isAscending();
+        }
+    }
+}
@@ -1,26 +1,31 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.Order;
 import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.util.StringUtils;
+import study.querydsl.cache.MemberSearchSingleFlight;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
+import study.querydsl.repository.MemberPagingPolicy.PagePlan;
+import study.querydsl.repository.shard.ShardedMemberRepository;
 
 import java.util.List;
 
@@ -32,25 +37,53 @@ import static study.querydsl.entity.QTeam.team;
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
     private final JPAQueryFactory jpaQueryFactory;
+    private final MemberSearchSingleFlight singleFlight;    // 같은 검색이 동시에 오면 한번만 실행
+    private final MemberPagingPolicy pagingPolicy;
+    private final UsernameSearchPredicates usernamePredicates;   // usernamePrefix / usernameContains (UsernameIndex)
+    private final ObjectProvider<ShardedMemberRepository> shardedRepository;  // querydsl.shard.count 가 있으면 검색은 샤드로
+
+    /* 샤드 모드가 아니면 null */
+    private ShardedMemberRepository sharded() {
+        return shardedRepository.getIfAvailable();
+    }
+
+    /*
+    querydsl.search.denormalized-team-name=true 이면 team 조인 없이 member.team_name 을 쓴다.
+        teamId 는 FK 컬럼이라 어느 쪽이든 조인이 필요 없다.
+    */
+    private <T> JPAQuery<T> selectFromMember(Expression<T> projection) {
+        JPAQuery<T> query = jpaQueryFactory.select(projection).from(member);
+        if (!pagingPolicy.isDenormalizedTeamName()) {
+            query.leftJoin(member.team, team);
+        }
+        return query;
+    }
+
+    private QMemberTeamDto memberTeamDto() {
+        return new QMemberTeamDto(
+                member.id.as("memberId"),
+                member.username,
+                member.age,
+                member.team.id.as("teamId"),
+                pagingPolicy.isDenormalizedTeamName() ? member.teamName.as("teamName") : member.team.name.as("teamName")
+        );
+    }
 
     // 실제 구현체
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return jpaQueryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        member.team.id.as("teamId"),
-                        member.team.name.as("teamName")
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
+        return singleFlight.execute("search", condition, Pageable.unpaged(), () -> sharded() != null ? sharded().search(condition) : doSearch(condition));
+    }
+
+    private List<MemberTeamDto> doSearch(MemberSearchCondition condition) {
+        return selectFromMember(memberTeamDto())
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageLoe(condition.getAgeLoe()),
-                        ageGoe(condition.getAgeGoe())
+                        ageGoe(condition.getAgeGoe()),
+                        usernamePrefix(condition.getUsernamePrefix()),
+                        usernameContains(condition.getUsernameContains())
                 )
                 .fetch();
 
@@ -62,7 +95,10 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
     }
 
     private BooleanExpression teamNameEq(String teamName) {
-        return StringUtils.hasText(teamName) ? member.team.name.eq(teamName) : null;
+        if (!StringUtils.hasText(teamName)) {
+            return null;
+        }
+        return pagingPolicy.isDenormalizedTeamName() ? member.teamName.eq(teamName) : member.team.name.eq(teamName);
     }
 
     private BooleanExpression ageLoe(Integer ageLoe) {
@@ -73,88 +109,97 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
         return (ageGoe != null) ? member.age.goe(ageGoe) : null;
     }
 
+    private BooleanExpression usernamePrefix(String prefix) {
+        return usernamePredicates.usernamePrefix(prefix);
+    }
+
+    private BooleanExpression usernameContains(String infix) {
+        return usernamePredicates.usernameContains(infix);
+    }
+
 
 
     /* paging*/
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        JPAQuery<MemberTeamDto> query = jpaQueryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        member.team.id.as("teamId"),
-                        member.team.name.as("teamName")
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageLoe(condition.getAgeLoe()),
-                        ageGoe(condition.getAgeGoe())
-                )
-                .offset(pageable.getOffset())   // 어디서부터 시작?
-                .limit(pageable.getPageSize());// 한 페이지에 몇개?
-//                .fetch();// content 용 쿼리와 count 용 쿼리를 2개 날린다.
-        /* Querydsl Sort 적용! */
-        for (Sort.Order order : pageable.getSort()) {
-            PathBuilder pathBuilder = new PathBuilder(member.getType(), member.getMetadata());
-            query.orderBy(
-                    new OrderSpecifier(order.isAscending() ? Order.ASC : Order.DESC,
-                            pathBuilder.get(order.getProperty()))
-            );
-        }
-        List<MemberTeamDto> content = query.fetch();
+        return singleFlight.execute("searchPageSimple", condition, pageable, () -> sharded() != null
+                ? sharded().searchPageSimple(condition, pageable)
+                : doSearchPageSimple(condition, pageable));
+    }
+
+    private Page<MemberTeamDto> doSearchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        PagePlan plan = pagingPolicy.plan(pageable);    // 페이지 크기 제한, 정렬 화이트리스트, 깊은 offset 처리
+        List<MemberTeamDto> content = fetchPage(condition, plan);
 
-        Long total = jpaQueryFactory
-                .select(member.count())
-                .from(member)
-                .leftJoin(member.team, team)
+        Long total = selectFromMember(member.count())
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageLoe(condition.getAgeLoe()),
-                        ageGoe(condition.getAgeGoe())
+                        ageGoe(condition.getAgeGoe()),
+                        usernamePrefix(condition.getUsernamePrefix()),
+                        usernameContains(condition.getUsernameContains())
                 )
                 .fetchOne();
 
 
 
-        return new PageImpl<>(content, pageable, total);    // page의 구현체이다.
+        return new PageImpl<>(content, plan.pageable(), total);    // page의 구현체이다.
     }
 
-    @Override
-    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = jpaQueryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        member.team.id.as("teamId"),
-                        member.team.name.as("teamName")
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
+    /*
+    정렬은 MemberPagingPolicy 가 인덱스 있는 경로로만 바꿔준다.
+        (예전에는 PathBuilder 로 member 의 아무 프로퍼티나 정렬했다.)
+    커서(keyset): offset 없이 member_id > after 로 PK 인덱스에서 바로 시작한다.
+    */
+    private List<MemberTeamDto> fetchPage(MemberSearchCondition condition, PagePlan plan) {
+        return fetchPage(condition, plan, plan.pageable().getPageSize());
+    }
+
+    private List<MemberTeamDto> fetchPage(MemberSearchCondition condition, PagePlan plan, int limit) {
+        Pageable pageable = plan.pageable();
+        JPAQuery<MemberTeamDto> query = selectFromMember(memberTeamDto())
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageLoe(condition.getAgeLoe()),
-                        ageGoe(condition.getAgeGoe())
+                        ageGoe(condition.getAgeGoe()),
+                        usernamePrefix(condition.getUsernamePrefix()),
+                        usernameContains(condition.getUsernameContains())
                 )
-                .offset(pageable.getOffset())   // 어디서부터 시작?
-                .limit(pageable.getPageSize())  // 한 페이지에 몇개?
-                .fetch();// content 용 쿼리와 count 용 쿼리를 2개 날린다.
-
-        JPAQuery<Long> countQuery = jpaQueryFactory
-                .select(member.count())
-                .from(member)
-                .leftJoin(member.team, team)
+                .limit(limit);// 한 페이지에 몇개?
+
+        if (plan.keyset()) {
+            query.where(plan.ascending() ? member.id.gt(plan.after()) : member.id.lt(plan.after()));
+        } else {
+            query.offset(pageable.getOffset());   // 어디서부터 시작?
+        }
+
+        for (OrderSpecifier<?> order : plan.orders()) {
+            query.orderBy(order);
+        }
+        return query.fetch();
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        return singleFlight.execute("searchPageComplex", condition, pageable, () -> sharded() != null
+                ? sharded().searchPageComplex(condition, pageable)
+                : doSearchPageComplex(condition, pageable));
+    }
+
+    private Page<MemberTeamDto> doSearchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        PagePlan plan = pagingPolicy.plan(pageable);
+        List<MemberTeamDto> content = fetchPage(condition, plan);// content 용 쿼리와 count 용 쿼리를 2개 날린다.
+
+        JPAQuery<Long> countQuery = selectFromMember(member.count())
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageLoe(condition.getAgeLoe()),
-                        ageGoe(condition.getAgeGoe())
+                        ageGoe(condition.getAgeGoe()),
+                        usernamePrefix(condition.getUsernamePrefix()),
+                        usernameContains(condition.getUsernameContains())
                 );
 
 
@@ -162,7 +207,36 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
                          실제 필요한 곳에서만 카운트 쿼리를 날리기위해서 fetchCount 전까지만 해서 보내준 것
                                 이것이 countQuery 최적화?
                         */
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+        return PageableExecutionUtils.getPage(content, plan.pageable(), countQuery::fetchOne);
 //        return new PageImpl<>(content, pageable, total);    // page의 구현체이다.
     }
+
+    /*
+    무한 스크롤용 - 전체 개수를 안 세고 pageSize + 1 개를 읽어서 다음 페이지가 있는지만 본다.
+        member.count() 쿼리가 아예 나가지 않는다.
+    */
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        return searchSlice(condition, null, pageable);
+    }
+
+    /* after = 이전 페이지 마지막 memberId. 다음 커서는 결과 마지막 행의 memberId */
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Long after, Pageable pageable) {
+        return singleFlight.execute("searchSlice", condition, pageable, after, () -> sharded() != null
+                ? sharded().searchSlice(condition, after, pageable)
+                : doSearchSlice(condition, after, pageable));
+    }
+
+    private Slice<MemberTeamDto> doSearchSlice(MemberSearchCondition condition, Long after, Pageable pageable) {
+        PagePlan plan = pagingPolicy.plan(pageable, after);
+        int pageSize = plan.pageable().getPageSize();
+        List<MemberTeamDto> content = fetchPage(condition, plan, pageSize + 1);
+
+        boolean hasNext = content.size() > pageSize;
+        if (hasNext) {
+            content = content.subList(0, pageSize);
+        }
+        return new SliceImpl<>(content, plan.pageable(), hasNext);
+    }
 }
@@ -0,0 +1,230 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.cache.TableVersions;
+import study.querydsl.event.ChangeCapture;
+import study.querydsl.event.ChangeEventBus;
+import study.querydsl.event.ChangeType;
+import study.querydsl.event.EntityChangeEvent;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+member.team_name (team.name 복사본) 을 맞춰준다.
+    - changeTeam 은 엔티티에서 바로 맞춘다.
+    - 팀 이름 변경은 커밋 후 ChangeEventBus 로 받아서 별도 쓰레드에서 batchSize 개씩 나눠 커밋한다.
+      (팀 하나에 회원이 많아도 트랜잭션 하나가 길게 잡지 않도록)
+    - id 를 모르는 벌크 DML(UNRESOLVED) 이 member / team 에 있었으면 전체를 검사해서 고친다. (repair)
+    - verify() : 어긋난 행 수. 0 이 아니면 denormalized 모드 검색 결과가 조인 결과와 다를 수 있다. verify(teamId) 는 그 팀만
+    - 구독(팀 이름 변경 전파, repair)은 denormalized 모드 (querydsl.search.denormalized-team-name=true) 에서만 한다.
+      꺼져 있으면 아무도 team_name 을 읽지 않으므로 쓰기만 늘어난다. (켤 때는 repair 로 한번 맞춘다)
+    바뀐 member 는 ChangeCapture.resolveBulk 로 남기므로 outbox / 인덱스에도 전달된다.
+*/
+@Slf4j
+@Component
+public class MemberTeamNameSynchronizer {
+
+    private final JPAQueryFactory jpaQueryFactory;
+    private final ChangeEventBus changeEventBus;
+    private final ChangeCapture changeCapture;
+    private final MemberPagingPolicy pagingPolicy;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "member-team-name-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MemberTeamNameSynchronizer(JPAQueryFactory jpaQueryFactory,
+                                      ChangeEventBus changeEventBus,
+                                      ChangeCapture changeCapture,
+                                      MemberPagingPolicy pagingPolicy,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${querydsl.search.team-name-sync-batch-size:500}") int batchSize) {
+        this.jpaQueryFactory = jpaQueryFactory;
+        this.changeEventBus = changeEventBus;
+        this.changeCapture = changeCapture;
+        this.pagingPolicy = pagingPolicy;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    private volatile boolean subscribed;
+
+    @PostConstruct
+    public void subscribe() {
+        if (!pagingPolicy.isDenormalizedTeamName()) {
+            return;
+        }
+        changeEventBus.subscribe(this::onChanges);
+        subscribed = true;
+    }
+
+    public boolean isSubscribed() {
+        return subscribed;
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    void onChanges(List<EntityChangeEvent> events) {
+        Set<Long> renamedTeams = new LinkedHashSet<>();
+        boolean unresolved = false;
+        for (EntityChangeEvent event : events) {
+            if (event.type() == ChangeType.UNRESOLVED) {
+                unresolved = true;
+            } else if (TableVersions.TEAM.equals(event.table()) && event.type() == ChangeType.UPDATE) {
+                renamedTeams.addAll(event.ids());
+            }
+        }
+        if (unresolved) {
+            executor.execute(this::runRepair);
+        } else if (!renamedTeams.isEmpty()) {
+            executor.execute(() -> renamedTeams.forEach(this::runPropagate));
+        }
+    }
+
+    /* 팀 하나의 어긋난 member 를 batchSize 개씩 고친다. 고친 행 수를 돌려준다. */
+    public long propagate(Long teamId) {
+        long updated = 0;
+        while (true) {
+            Long batch = transactionTemplate.execute(status -> {
+                String name = jpaQueryFactory
+                        .select(team.name)
+                        .from(team)
+                        .where(team.id.eq(teamId))
+                        .fetchOne();
+                List<Long> ids = jpaQueryFactory
+                        .select(member.id)
+                        .from(member)
+                        .where(member.team.id.eq(teamId), differs(name))
+                        .orderBy(member.id.asc())
+                        .limit(batchSize)
+                        .fetch();
+                if (ids.isEmpty()) {
+                    return 0L;
+                }
+                return changeCapture.resolveBulk(TableVersions.MEMBER, ChangeType.UPDATE, ids, () -> jpaQueryFactory
+                        .update(member)
+                        .set(member.teamName, name)
+                        .where(member.id.in(ids))
+                        .execute());
+            });
+            if (batch == null || batch == 0) {
+                return updated;
+            }
+            updated += batch;
+        }
+    }
+
+    /* 어긋난 member 가 있는 팀마다 propagate, 팀이 없는데 team_name 이 남은 member 는 비운다. */
+    public long repair() {
+        List<Long> teamIds = transactionTemplate.execute(status -> jpaQueryFactory
+                .select(member.team.id)
+                .distinct()
+                .from(member)
+                .join(member.team, team)
+                .where(inconsistentWithTeam())
+                .fetch());
+        long updated = 0;
+        for (Long teamId : teamIds) {
+            updated += propagate(teamId);
+        }
+        while (true) {
+            Long batch = transactionTemplate.execute(status -> {
+                List<Long> ids = jpaQueryFactory
+                        .select(member.id)
+                        .from(member)
+                        .where(member.team.isNull(), member.teamName.isNotNull())
+                        .limit(batchSize)
+                        .fetch();
+                if (ids.isEmpty()) {
+                    return 0L;
+                }
+                return changeCapture.resolveBulk(TableVersions.MEMBER, ChangeType.UPDATE, ids, () -> jpaQueryFactory
+                        .update(member)
+                        .setNull(member.teamName)
+                        .where(member.id.in(ids))
+                        .execute());
+            });
+            if (batch == null || batch == 0) {
+                return updated;
+            }
+            updated += batch;
+        }
+    }
+
+    /* team_name 이 team.name 과 다른 member 수 */
+    public long verify() {
+        Long withTeam = jpaQueryFactory
+                .select(member.count())
+                .from(member)
+                .join(member.team, team)
+                .where(inconsistentWithTeam())
+                .fetchOne();
+        Long withoutTeam = jpaQueryFactory
+                .select(member.count())
+                .from(member)
+                .where(member.team.isNull(), member.teamName.isNotNull())
+                .fetchOne();
+        return (withTeam == null ? 0 : withTeam) + (withoutTeam == null ? 0 : withoutTeam);
+    }
+
+    /* 팀 하나에서 team_name 이 team.name 과 다른 member 수 */
+    public long verify(Long teamId) {
+        Long count = jpaQueryFactory
+                .select(member.count())
+                .from(member)
+                .join(member.team, team)
+                .where(team.id.eq(teamId), inconsistentWithTeam())
+                .fetchOne();
+        return count == null ? 0 : count;
+    }
+
+    private BooleanExpression inconsistentWithTeam() {
+        return member.teamName.isNull().and(team.name.isNotNull())
+                .or(member.teamName.isNotNull().and(team.name.isNull()))
+                .or(member.teamName.ne(team.name));
+    }
+
+    private BooleanExpression differs(String name) {
+        return name == null ? member.teamName.isNotNull() : member.teamName.isNull().or(member.teamName.ne(name));
+    }
+
+    private void runPropagate(Long teamId) {
+        try {
+            propagate(teamId);
+        } catch (RuntimeException e) {
+            log.warn("team name propagation failed for team {}, run repair()", teamId, e);
+        }
+    }
+
+    private void runRepair() {
+        try {
+            long repaired = repair();
+            if (repaired > 0) {
+                log.info("repaired team_name on {} members", repaired);
+            }
+        } catch (RuntimeException e) {
+            log.warn("team name repair failed", e);
+        }
+    }
+}
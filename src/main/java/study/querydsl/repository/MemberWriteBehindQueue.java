@@ -0,0 +1,165 @@
+package study.querydsl.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/*
+Member insert write-behind (querydsl.write-behind.enabled=true 일 때만)
+    - submit 은 크기가 정해진 큐에 넣기만 하고 CompletableFuture<id> 를 돌려준다.
+    - 백그라운드 쓰레드가 batchSize 개가 모이거나 maxDelay 가 지나면 한 트랜잭션으로 묶어서 저장한다. (group commit)
+      hibernate.jdbc.batch_size 와 같이 쓰면 insert 도 JDBC batch 로 나간다.
+    - future 는 커밋이 끝난 뒤에 완료된다. = 내구성 확인
+    - 큐가 꽉 차면 offerTimeout 동안 기다리고(backpressure), 그래도 자리가 없으면 RejectedExecutionException
+    - 묶음 커밋이 실패하면 하나씩 다시 저장해서, 잘못된 member 하나가 같은 묶음의 나머지를 실패시키지 않게 한다.
+    - 쓰기 쓰레드가 끝나면(stop, 인터럽트) 아직 못 쓴 future 는 모두 예외로 완료한다. 완료 안 되는 future 는 없다.
+*/
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "querydsl.write-behind", name = "enabled", havingValue = "true")
+public class MemberWriteBehindQueue {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long offerTimeoutMillis;
+    private final Thread writer = new Thread(this::drainLoop, "member-write-behind");
+    private volatile boolean running = true;
+    private volatile boolean closed;    // 쓰기 쓰레드가 루프를 빠져나왔다. 이후에 들어온 것은 아무도 안 쓴다.
+
+    public MemberWriteBehindQueue(PlatformTransactionManager transactionManager,
+                                  @Value("${querydsl.write-behind.capacity:10000}") int capacity,
+                                  @Value("${querydsl.write-behind.batch-size:100}") int batchSize,
+                                  @Value("${querydsl.write-behind.max-delay-ms:10}") long maxDelayMillis,
+                                  @Value("${querydsl.write-behind.offer-timeout-ms:1000}") long offerTimeoutMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public CompletableFuture<Long> submit(Member member) {
+        Pending pending = new Pending(member, new CompletableFuture<>());
+        try {
+            if (!running || !queue.offer(pending, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("member write-behind queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("interrupted while waiting for queue space", e);
+        }
+        // stop 과 겹쳐서 쓰기 쓰레드가 마지막으로 큐를 비운 뒤에 들어갔을 수 있다.
+        if (closed && queue.remove(pending)) {
+            throw new RejectedExecutionException("member write-behind queue is stopped");
+        }
+        return pending.future();
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        } finally {
+            closed = true;
+            RejectedExecutionException stopped = new RejectedExecutionException("member write-behind writer stopped");
+            batch.forEach(pending -> pending.future().completeExceptionally(stopped));
+            List<Pending> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            remaining.forEach(pending -> pending.future().completeExceptionally(stopped));
+            if (!remaining.isEmpty() || !batch.isEmpty()) {
+                log.warn("write-behind writer stopped with {} unwritten members", remaining.size() + batch.size());
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Pending pending : batch) {
+                    em.persist(pending.member());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("write-behind batch of {} members failed, retrying one by one", batch.size(), e);
+            batch.forEach(pending -> pending.member().setId(null));     // 롤백된 persist 가 남긴 id
+            batch.forEach(this::writeOne);
+            return;
+        }
+        batch.forEach(pending -> pending.future().complete(pending.member().getId()));
+    }
+
+    private void writeOne(Pending pending) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> em.persist(pending.member()));
+        } catch (RuntimeException e) {
+            pending.member().setId(null);
+            pending.future().completeExceptionally(e);
+            return;
+        }
+        pending.future().complete(pending.member().getId());
+    }
+
+    /* 종료 시 큐에 남은 것까지 쓰고 끝낸다. 30초 안에 못 끝내면 인터럽트하고, 남은 future 는 예외로 완료된다. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (writer.isAlive()) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private record Pending(Member member, CompletableFuture<Long> future) {
+    }
+}
@@ -0,0 +1,13 @@
+package study.querydsl.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/* 공개 API 로 비싼 실행계획(인덱스 없는 정렬, 깊은 offset)을 만들려고 하면 400 */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class PagingPolicyViolationException extends IllegalArgumentException {
+
+    public PagingPolicyViolationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,138 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.QTeamWithMembersDto_MemberItem;
+import study.querydsl.dto.TeamWithMembersDto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+팀 + 소속 회원 페이징
+    select t from Team t join fetch t.members 에 offset/limit 를 걸면
+    Hibernate 가 전체를 읽어서 메모리에서 자른다. (HHH000104) -> 두 번에 나눠 읽는다.
+        1. team 만 페이징 (id, name)
+        2. 그 페이지의 team_id 들로 member 를 팀마다 membersPerTeam 명까지만 한번에 읽어서 붙인다.
+           row_number() over (partition by team_id) 로 자르므로 네이티브 SQL (MemberAnalyticsRepository 와 같은 방식)
+           한 명 더 읽어서 남은 회원이 있으면 hasMoreMembers = true. 나머지는 findMembers 로 이어서 읽는다.
+    메모리는 테이블 크기나 팀 크기가 아니라 페이지 크기 x membersPerTeam 만큼만 쓴다.
+*/
+@Repository
+@RequiredArgsConstructor
+public class TeamRepository {
+
+    public static final int DEFAULT_MEMBERS_PER_TEAM = 20;
+
+    private final JPAQueryFactory jpaQueryFactory;
+    private final EntityManager em;
+
+    public Page<TeamWithMembersDto> searchWithMembers(String teamName, Pageable pageable) {
+        return searchWithMembers(teamName, pageable, DEFAULT_MEMBERS_PER_TEAM);
+    }
+
+    public Page<TeamWithMembersDto> searchWithMembers(String teamName, Pageable pageable, int membersPerTeam) {
+        JPAQuery<Tuple> teamQuery = jpaQueryFactory
+                .select(team.id, team.name)
+                .from(team)
+                .where(teamNameEq(teamName))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize());
+        for (OrderSpecifier<?> order : orders(pageable.getSort())) {
+            teamQuery.orderBy(order);
+        }
+
+        Map<Long, TeamWithMembersDto> teams = new LinkedHashMap<>();
+        for (Tuple row : teamQuery.fetch()) {
+            Long teamId = row.get(team.id);
+            teams.put(teamId, new TeamWithMembersDto(teamId, row.get(team.name)));
+        }
+
+        if (!teams.isEmpty()) {
+            List<?> rows = em.createNativeQuery("""
+                            select r.team_id, r.member_id, r.username, r.age
+                            from (
+                                select m.team_id, m.member_id, m.username, m.age,
+                                       row_number() over (partition by m.team_id order by m.member_id) as rn
+                                from member m
+                                where m.team_id in (:teamIds)
+                            ) r
+                            where r.rn <= :maxRank
+                            order by r.team_id, r.member_id""")
+                    .setParameter("teamIds", teams.keySet())
+                    .setParameter("maxRank", membersPerTeam + 1)
+                    .getResultList();
+            for (Object row : rows) {
+                Object[] columns = (Object[]) row;
+                TeamWithMembersDto dto = teams.get(((Number) columns[0]).longValue());
+                if (dto.getMembers().size() == membersPerTeam) {
+                    dto.setHasMoreMembers(true);
+                    continue;
+                }
+                dto.getMembers().add(new TeamWithMembersDto.MemberItem(
+                        ((Number) columns[1]).longValue(), (String) columns[2], ((Number) columns[3]).intValue()));
+            }
+        }
+
+        JPAQuery<Long> countQuery = jpaQueryFactory
+                .select(team.count())
+                .from(team)
+                .where(teamNameEq(teamName));
+        return PageableExecutionUtils.getPage(new ArrayList<>(teams.values()), pageable, countQuery::fetchOne);
+    }
+
+    /* hasMoreMembers 인 팀의 나머지 회원. afterMemberId 다음부터 size 명 (member_id 순, idx_member_team) */
+    public List<TeamWithMembersDto.MemberItem> findMembers(Long teamId, Long afterMemberId, int size) {
+        return jpaQueryFactory
+                .select(new QTeamWithMembersDto_MemberItem(member.id, member.username, member.age))
+                .from(member)
+                .where(member.team.id.eq(teamId),
+                        afterMemberId != null ? member.id.gt(afterMemberId) : null)
+                .orderBy(member.id.asc())
+                .limit(size)
+                .fetch();
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    /* name(idx_team_name), id 만 정렬 가능. 같은 이름이 있어도 페이지가 겹치지 않게 id 를 항상 붙인다. */
+    private List<OrderSpecifier<?>> orders(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        boolean idOrdered = false;
+        for (Sort.Order order : sort) {
+            switch (order.getProperty()) {
+                case "name", "teamName" -> orders.add(order.isAscending() ? team.name.asc() : team.name.desc());
+                case "id", "teamId" -> {
+                    orders.add(order.isAscending() ? team.id.asc() : team.id.desc());
+                    idOrdered = true;
+                }
+                default -> throw new PagingPolicyViolationException("sort property not allowed: " + order.getProperty());
+            }
+            if (idOrdered) {
+                break;
+            }
+        }
+        if (!idOrdered) {
+            orders.add(team.id.asc());
+        }
+        return orders;
+    }
+}
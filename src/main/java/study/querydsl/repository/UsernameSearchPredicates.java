@@ -0,0 +1,51 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import study.querydsl.search.UsernameIndex;
+
+import java.util.Arrays;
+
+import static study.querydsl.entity.QMember.member;
+
+/*
+usernamePrefix / usernameContains 검색 조건 (MemberRepositoryImpl, MemberJpaRepository 가 같이 쓴다)
+    like 'x%' / like '%x%' 테이블 스캔 대신 UsernameIndex 에서 id 를 먼저 찾아 member_id in (...) 으로 좁힌다.
+    인덱스 후보는 커밋된 행의 상위집합이고, username 조건을 같이 걸어서 남는 id 는 DB 에서 걸러진다.
+    인덱스가 따라잡는 중이거나 후보가 MAX_INDEXED_IDS 개를 넘으면 (둘 다 null) in 절이 더 비싸므로 like 만 쓴다.
+*/
+@Component
+@RequiredArgsConstructor
+class UsernameSearchPredicates {
+
+    static final int MAX_INDEXED_IDS = 1000;
+
+    private final UsernameIndex usernameIndex;
+
+    BooleanExpression usernamePrefix(String prefix) {
+        if (!StringUtils.hasText(prefix)) {
+            return null;
+        }
+        return idIn(usernameIndex.findByPrefix(prefix, MAX_INDEXED_IDS), member.username.startsWith(prefix));
+    }
+
+    BooleanExpression usernameContains(String infix) {
+        if (!StringUtils.hasText(infix)) {
+            return null;
+        }
+        return idIn(usernameIndex.findByInfix(infix, MAX_INDEXED_IDS), member.username.contains(infix));
+    }
+
+    private BooleanExpression idIn(long[] ids, BooleanExpression verify) {
+        if (ids == null) {
+            return verify;
+        }
+        if (ids.length == 0) {
+            return Expressions.FALSE.isTrue();
+        }
+        return member.id.in(Arrays.stream(ids).boxed().toList()).and(verify);
+    }
+}
@@ -0,0 +1,59 @@
+package study.querydsl.repository.shard;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import study.querydsl.entity.Member;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*
+querydsl.shard.count 가 있을 때만 샤드용 EntityManagerFactory 들을 만든다.
+    - EntityManagerFactory 를 빈으로 등록하면 기본 JPA 자동설정이 꺼지므로, 샤드 EMF 는 ShardedMemberRepository 안에서만 들고 있는다.
+    - 이 빈이 있으면 MemberRepositoryImpl / MemberJpaRepository 의 검색이 전부 여기로 간다. (/v1 ~ /v4 모두 샤드 scatter / gather)
+    - 로컬 데모는 jdbc:h2:mem:shard0 ... shardN-1 (url 패턴은 querydsl.shard.url 로 변경 가능)
+    - 샤드 쓰기가 메인 DB 기준의 UsernameIndex / ChangeCapture 로 흘러가면 안 되므로 엔티티 리스너(JPA 콜백)는 끈다.
+*/
+@Configuration
+@ConditionalOnProperty(prefix = "querydsl.shard", name = "count")
+public class MemberShardConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardedMemberRepository shardedMemberRepository(
+            EntityManagerFactoryBuilder builder,
+            @Value("${querydsl.shard.count}") int shardCount,
+            @Value("${querydsl.shard.url:jdbc:h2:mem:shard%d;DB_CLOSE_DELAY=-1}") String urlPattern,
+            @Value("${querydsl.shard.threads:0}") int threads) {
+
+        List<EntityManagerFactory> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            DataSource dataSource = DataSourceBuilder.create()
+                    .url(String.format(urlPattern, i))
+                    .username("sa")
+                    .password("")
+                    .build();
+
+            LocalContainerEntityManagerFactoryBean factoryBean = builder
+                    .dataSource(dataSource)
+                    .packages(Member.class)
+                    .persistenceUnit("shard" + i)
+                    .properties(Map.of(
+                            AvailableSettings.HBM2DDL_AUTO, "create",
+                            AvailableSettings.JPA_CALLBACKS_ENABLED, "false"))
+                    .build();
+            factoryBean.afterPropertiesSet();
+            shards.add(factoryBean.getObject());
+        }
+
+        return new ShardedMemberRepository(shards, threads > 0 ? threads : shardCount);
+    }
+}
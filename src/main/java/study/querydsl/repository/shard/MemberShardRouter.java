@@ -0,0 +1,27 @@
+package study.querydsl.repository.shard;
+
+/*
+member_id 해시로 샤드를 고른다.
+    Long.hashCode 는 상위/하위 32bit 를 섞어주고, 한번 더 섞어서 연속된 id 가 한 샤드에 몰리지 않게 한다.
+*/
+public class MemberShardRouter {
+
+    private final int shardCount;
+
+    public MemberShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int shardOf(Long memberId) {
+        int h = Long.hashCode(memberId);
+        h ^= (h >>> 16);
+        return Math.floorMod(h, shardCount);
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+}
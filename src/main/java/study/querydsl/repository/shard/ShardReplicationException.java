@@ -0,0 +1,19 @@
+package study.querydsl.repository.shard;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/* Team 복제가 일부 샤드에서 실패했다. 같은 teamId 로 replicateTeam 을 다시 부르면 된다. (멱등) */
+@Getter
+public class ShardReplicationException extends IllegalStateException {
+
+    private final Long teamId;
+    private final List<Integer> failedShards;
+
+    public ShardReplicationException(Long teamId, List<Integer> failedShards, Throwable cause) {
+        super("team " + teamId + " was not replicated to shards " + failedShards, cause);
+        this.teamId = teamId;
+        this.failedShards = List.copyOf(failedShards);
+    }
+}
@@ -0,0 +1,482 @@
+package study.querydsl.repository.shard;
+
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepositoryCustom;
+import study.querydsl.repository.PagingPolicyViolationException;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/*
+member_id 해시로 나눠진 샤드들 위에서 동작하는 MemberRepositoryCustom 구현.
+    - Team 은 모든 샤드에 복제되어 있다고 가정한다. (saveTeam 이 id 를 한 번 정해서 모든 샤드에 merge, 어긋나면 reconcileTeams)
+    - 검색은 모든 샤드에 같은 Querydsl 쿼리를 병렬로 보낸 뒤(scatter), 정렬 기준으로 병합(gather)한다.
+    - 페이지는 각 샤드에서 offset + size 만큼만 가져와서 k-way merge 후 잘라낸다. count 는 합산.
+    - Member 쓰기(saveMember)는 id 를 먼저 정해야 샤드를 고를 수 있으므로, 샤드 0 의 shard_member_seq 를 전역 id 발급기로 쓰고
+      (pooled-lo 처럼 ID_BLOCK 개씩 받아서 메모리에서 나눠준다) 고른 샤드에 직접 insert 한다.
+*/
+public class ShardedMemberRepository implements MemberRepositoryCustom {
+
+    private static final int ID_BLOCK = 50;
+
+    // MemberTeamDto 필드명 -> 샤드 쿼리 정렬 경로 / 병합용 값 추출기
+    private static final Map<String, ComparableExpressionBase<?>> SORT_PATHS = Map.of(
+            "memberId", member.id,
+            "username", member.username,
+            "age", member.age,
+            "teamId", team.id,
+            "teamName", team.name
+    );
+    private static final Map<String, Function<MemberTeamDto, Comparable>> SORT_KEYS = Map.of(
+            "memberId", MemberTeamDto::getMemberId,
+            "username", MemberTeamDto::getUsername,
+            "age", MemberTeamDto::getAge,
+            "teamId", MemberTeamDto::getTeamId,
+            "teamName", MemberTeamDto::getTeamName
+    );
+
+    private final List<EntityManagerFactory> shards;
+    private final List<JPAQueryFactory> queryFactories = new ArrayList<>();
+    private final MemberShardRouter router;
+    private final ExecutorService executor;
+
+    private long nextId;
+    private long idLimit;
+
+    public ShardedMemberRepository(List<EntityManagerFactory> shards, int threads) {
+        this.shards = shards;
+        this.router = new MemberShardRouter(shards.size());
+        this.executor = Executors.newFixedThreadPool(threads);
+        for (EntityManagerFactory emf : shards) {
+            // 트랜잭션 밖에서는 쿼리마다 EntityManager 를 새로 열고 닫아준다.
+            queryFactories.add(new JPAQueryFactory(SharedEntityManagerCreator.createSharedEntityManager(emf)));
+        }
+        inTransaction(shards.get(0), em -> em
+                .createNativeQuery("create sequence if not exists shard_member_seq start with 1 increment by " + ID_BLOCK)
+                .executeUpdate());
+        inTransaction(shards.get(0), em -> em
+                .createNativeQuery("create sequence if not exists shard_team_seq start with 1 increment by 1")
+                .executeUpdate());
+    }
+
+    /* id -> 샤드를 정하고 그 샤드에만 insert. team 은 복제본에서 이름을 읽어 team_name 도 같이 채운다. */
+    public Long saveMember(String username, int age, Long teamId) {
+        long id = nextMemberId();
+        inTransaction(shards.get(router.shardOf(id)), em -> {
+            String teamName = null;
+            if (teamId != null) {
+                Team replica = em.find(Team.class, teamId);
+                if (replica == null) {
+                    throw new IllegalArgumentException("team not found: " + teamId);
+                }
+                teamName = replica.getName();
+            }
+            String name = teamName;
+            em.unwrap(Session.class).doWork(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "insert into member (member_id, username, age, team_id, team_name) values (?, ?, ?, ?, ?)")) {
+                    ps.setLong(1, id);
+                    ps.setString(2, username);
+                    ps.setInt(3, age);
+                    if (teamId == null) {
+                        ps.setNull(4, Types.BIGINT);
+                    } else {
+                        ps.setLong(4, teamId);
+                    }
+                    ps.setString(5, name);
+                    ps.executeUpdate();
+                }
+            });
+            return null;
+        });
+        return id;
+    }
+
+    private synchronized long nextMemberId() {
+        if (nextId >= idLimit) {
+            long lo = inTransaction(shards.get(0), em -> ((Number) em
+                    .createNativeQuery("select next value for shard_member_seq")
+                    .getSingleResult()).longValue());
+            nextId = lo;
+            idLimit = lo + ID_BLOCK;
+        }
+        return nextId++;
+    }
+
+    private static <T> T inTransaction(EntityManagerFactory emf, Function<EntityManager, T> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            T result = work.apply(em);
+            em.getTransaction().commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    public Optional<Member> findById(Long id) {
+        EntityManager em = shards.get(router.shardOf(id)).createEntityManager();
+        try {
+            return Optional.ofNullable(em.find(Member.class, id));
+        } finally {
+            em.close();
+        }
+    }
+
+    /*
+    Team 은 모든 샤드에 복제. id 는 샤드 0 의 shard_team_seq 에서 한 번만 받고, 샤드마다 같은 id 로 merge 한다.
+        샤드마다 트랜잭션이 따로라서 중간에 실패하면 일부 샤드에만 팀이 남는다.
+        merge 는 몇 번을 다시 해도 같은 결과이므로, 실패하면 ShardReplicationException 의 teamId 로 replicateTeam 을 다시 부르거나
+        reconcileTeams 로 전체를 맞춘다. (그 전까지 빠진 샤드의 회원은 팀 조인 결과가 비어 있다)
+    */
+    public Long saveTeam(String name) {
+        Long teamId = inTransaction(shards.get(0), em -> ((Number) em
+                .createNativeQuery("select next value for shard_team_seq")
+                .getSingleResult()).longValue());
+        replicateTeam(teamId, name);
+        return teamId;
+    }
+
+    /* 모든 샤드에 (teamId, name) 을 merge. 실패한 샤드가 있으면 나머지는 끝까지 하고 ShardReplicationException */
+    public void replicateTeam(Long teamId, String name) {
+        List<Integer> failed = new ArrayList<>();
+        RuntimeException cause = null;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            try {
+                mergeTeam(shard, teamId, name);
+            } catch (RuntimeException e) {
+                failed.add(shard);
+                if (cause == null) {
+                    cause = e;
+                } else {
+                    cause.addSuppressed(e);
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new ShardReplicationException(teamId, failed, cause);
+        }
+    }
+
+    /* 어느 샤드에든 있는 팀을 빠진 샤드에 채운다. 이름이 다르면 샤드 0 (없으면 처음 찾은 샤드) 값으로 맞춘다. 채운 행 수를 돌려준다. */
+    public int reconcileTeams() {
+        Map<Long, String> names = new LinkedHashMap<>();
+        List<Map<Long, String>> perShard = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            Map<Long, String> replicas = teams(shard);
+            perShard.add(replicas);
+            replicas.forEach(names::putIfAbsent);
+        }
+        int repaired = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            Map<Long, String> replicas = perShard.get(shard);
+            for (Map.Entry<Long, String> team : names.entrySet()) {
+                if (!replicas.containsKey(team.getKey()) || !Objects.equals(replicas.get(team.getKey()), team.getValue())) {
+                    mergeTeam(shard, team.getKey(), team.getValue());
+                    repaired++;
+                }
+            }
+        }
+        return repaired;
+    }
+
+    void mergeTeam(int shard, Long teamId, String name) {
+        inTransaction(shards.get(shard), em -> em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("merge into team (team_id, name) key (team_id) values (?, ?)")) {
+                ps.setLong(1, teamId);
+                ps.setString(2, name);
+                return ps.executeUpdate();
+            }
+        }));
+    }
+
+    Map<Long, String> teams(int shard) {
+        return inTransaction(shards.get(shard), em -> {
+            Map<Long, String> teams = new LinkedHashMap<>();
+            for (Object[] row : em.createQuery("select t.id, t.name from Team t order by t.id", Object[].class).getResultList()) {
+                teams.put((Long) row[0], (String) row[1]);
+            }
+            return teams;
+        });
+    }
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        List<List<MemberTeamDto>> perShard = gather(scatter(factory -> contentQuery(factory, condition).fetch()));
+        return merge(perShard, Sort.by("memberId"), 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        return searchPage(condition, pageable);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        return searchPage(condition, pageable);
+    }
+
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        return searchSlice(condition, null, pageable);
+    }
+
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Long after, Pageable pageable) {
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("memberId");
+        long offset = pageable.getOffset();
+        BooleanExpression cursor = null;
+        if (after != null) {
+            Sort.Order order = sort.iterator().next();
+            if (!"memberId".equals(order.getProperty()) || sort.stream().count() > 1) {
+                throw new PagingPolicyViolationException("cursor paging (after) is only available sorted by memberId");
+            }
+            cursor = order.isAscending() ? member.id.gt(after) : member.id.lt(after);
+            offset = 0;
+        }
+        // 한 건 더 가져와서 다음 페이지 여부만 본다. count 는 안 보낸다.
+        List<MemberTeamDto> content = merge(gather(scatter(pagedContent(condition, cursor, sort,
+                offset + pageable.getPageSize() + 1))), sort, offset, pageable.getPageSize() + 1);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    private Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        long window = pageable.getOffset() + pageable.getPageSize();
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("memberId");
+
+        // content 와 count 를 샤드별 작업으로 한꺼번에 흩뿌리고, 기다리는 건 호출 스레드만 한다.
+        // (풀 안의 작업이 다시 같은 풀에 제출하고 join 하면 스레드가 모자랄 때 서로 기다리다 멈춘다)
+        List<CompletableFuture<List<MemberTeamDto>>> content = scatter(pagedContent(condition, null, sort, window));
+        List<CompletableFuture<Long>> counts = scatter(factory -> countQuery(factory, condition));
+
+        List<MemberTeamDto> page = merge(gather(content), sort, pageable.getOffset(), pageable.getPageSize());
+        long total = gather(counts).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        return new PageImpl<>(page, pageable, total);
+    }
+
+    private Function<JPAQueryFactory, List<MemberTeamDto>> pagedContent(MemberSearchCondition condition, BooleanExpression cursor,
+                                                                        Sort sort, long window) {
+        return factory -> {
+            JPAQuery<MemberTeamDto> query = contentQuery(factory, condition).where(cursor).limit(window);
+            for (OrderSpecifier<?> orderSpecifier : orderSpecifiers(sort)) {
+                query.orderBy(orderSpecifier);
+            }
+            return query.fetch();
+        };
+    }
+
+    /* 샤드마다 작업 하나씩 제출만 한다. 작업 안에서는 절대 다른 작업을 기다리지 않는다. */
+    private <T> List<CompletableFuture<T>> scatter(Function<JPAQueryFactory, T> work) {
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (JPAQueryFactory factory : queryFactories) {
+            futures.add(CompletableFuture.supplyAsync(() -> work.apply(factory), executor));
+        }
+        return futures;
+    }
+
+    private static <T> List<T> gather(List<CompletableFuture<T>> futures) {
+        List<T> results = new ArrayList<>();
+        for (CompletableFuture<T> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /* 각 샤드 결과가 sort 기준으로 정렬돼 있다는 전제의 k-way merge. offset 앞부분은 버리고 size 만큼만 모은다. */
+    static List<MemberTeamDto> merge(List<List<MemberTeamDto>> perShard, Sort sort, long offset, int size) {
+        Comparator<MemberTeamDto> comparator = comparator(sort);
+        PriorityQueue<Cursor> heap = new PriorityQueue<>((a, b) -> comparator.compare(a.current(), b.current()));
+        for (List<MemberTeamDto> rows : perShard) {
+            if (!rows.isEmpty()) {
+                heap.add(new Cursor(rows));
+            }
+        }
+
+        List<MemberTeamDto> result = new ArrayList<>();
+        long skipped = 0;
+        while (!heap.isEmpty() && result.size() < size) {
+            Cursor cursor = heap.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(cursor.current());
+            }
+            if (cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    static Comparator<MemberTeamDto> comparator(Sort sort) {
+        Comparator<MemberTeamDto> comparator = null;
+        for (Sort.Order order : sort) {
+            Function<MemberTeamDto, Comparable> key = sortKey(order.getProperty());
+            // 샤드 쿼리와 맞춘다: 방향과 상관없이 null 이 먼저 (NullHandling.NullsFirst). 값 비교만 뒤집는다.
+            boolean descending = order.isDescending();
+            Comparator<MemberTeamDto> next = (a, b) -> compareNullsFirst(key.apply(a), key.apply(b), descending);
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<MemberTeamDto> byId = Comparator.comparing(MemberTeamDto::getMemberId);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareNullsFirst(Comparable a, Comparable b, boolean descending) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return descending ? b.compareTo(a) : a.compareTo(b);
+    }
+
+    private static Function<MemberTeamDto, Comparable> sortKey(String property) {
+        Function<MemberTeamDto, Comparable> key = SORT_KEYS.get(property);
+        if (key == null) {
+            throw new IllegalArgumentException("unsupported sort property: " + property);
+        }
+        return key;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<OrderSpecifier<?>> orderSpecifiers(Sort sort) {
+        List<OrderSpecifier<?>> result = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            sortKey(order.getProperty());
+            result.add(new OrderSpecifier(order.isAscending() ? Order.ASC : Order.DESC,
+                    SORT_PATHS.get(order.getProperty()), OrderSpecifier.NullHandling.NullsFirst));
+        }
+        // 병합 비교기와 똑같이 member.id 로 동점을 끊어줘야 샤드 결과가 같은 순서가 된다.
+        result.add(member.id.asc());
+        return result;
+    }
+
+    private JPAQuery<MemberTeamDto> contentQuery(JPAQueryFactory factory, MemberSearchCondition condition) {
+        return factory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        usernamePrefix(condition.getUsernamePrefix()),
+                        usernameContains(condition.getUsernameContains()),
+                        teamNameEq(condition.getTeamName()),
+                        ageLoe(condition.getAgeLoe()),
+                        ageGoe(condition.getAgeGoe())
+                );
+    }
+
+    private Long countQuery(JPAQueryFactory factory, MemberSearchCondition condition) {
+        return factory
+                .select(member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        usernamePrefix(condition.getUsernamePrefix()),
+                        usernameContains(condition.getUsernameContains()),
+                        teamNameEq(condition.getTeamName()),
+                        ageLoe(condition.getAgeLoe()),
+                        ageGoe(condition.getAgeGoe())
+                )
+                .fetchOne();
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return StringUtils.hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression usernamePrefix(String prefix) {
+        return StringUtils.hasText(prefix) ? member.username.startsWith(prefix) : null;
+    }
+
+    private BooleanExpression usernameContains(String infix) {
+        return StringUtils.hasText(infix) ? member.username.contains(infix) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return (ageLoe != null) ? member.age.loe(ageLoe) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return (ageGoe != null) ? member.age.goe(ageGoe) : null;
+    }
+
+    public void close() {
+        executor.shutdown();
+        for (EntityManagerFactory emf : shards) {
+            emf.close();
+        }
+    }
+
+    private static class Cursor {
+        private final List<MemberTeamDto> rows;
+        private int index;
+
+        Cursor(List<MemberTeamDto> rows) {
+            this.rows = rows;
+        }
+
+        MemberTeamDto current() {
+            return rows.get(index);
+        }
+
+        boolean advance() {
+            return ++index < rows.size();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package study.querydsl.search;
+
+import java.util.Arrays;
+
+/*
+정렬된 long 배열 posting list (박싱 없음)
+    member_id 는 대부분 증가하는 순서로 들어오므로 add 는 보통 끝에 붙는다.
+*/
+final class LongPostingList {
+
+    private long[] ids = new long[4];
+    private int size;
+
+    void add(long id) {
+        if (size > 0 && ids[size - 1] >= id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            insertAt(-pos - 1, id);
+            return;
+        }
+        ensureCapacity();
+        ids[size++] = id;
+    }
+
+    boolean remove(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /* target[from..] 에 복사하고 다음 위치를 돌려준다. */
+    int copyTo(long[] target, int from) {
+        System.arraycopy(ids, 0, target, from, size);
+        return from + size;
+    }
+
+    private void insertAt(int pos, long id) {
+        ensureCapacity();
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        ids[pos] = id;
+        size++;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package study.querydsl.search;
+
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/*
+MemberSearchCondition 을 메모리에서 평가하는 필터 (MemberRepositoryImpl 의 where 절과 같은 의미)
+    usernameEq / teamNameEq  : 같은 문자열 (null 은 불일치 = SQL 의 null = ? )
+    ageGoe / ageLoe          : age >= / <=
+    usernamePrefix / Contains: startsWith / contains (like 의 %, _ 는 Querydsl 이 escape 하므로 글자 그대로)
+    빈 문자열 조건은 없는 것으로 본다. (StringUtils.hasText)
+
+    compile 할 때 있는 조건만 골라서 람다로 묶어둔다. 행마다 조건을 다시 보거나 리플렉션을 쓰지 않는다.
+    DTO 없이 컬럼 값만 있어도 되도록 test(username, age, teamName) 로 평가한다. (캐시, 스트리밍, 변경 이벤트 구독자용)
+*/
+@FunctionalInterface
+public interface MemberConditionFilter {
+
+    MemberConditionFilter ALWAYS = (username, age, teamName) -> true;
+
+    boolean test(String username, int age, String teamName);
+
+    default Predicate<MemberTeamDto> asPredicate() {
+        return row -> test(row.getUsername(), row.getAge(), row.getTeamName());
+    }
+
+    static MemberConditionFilter compile(MemberSearchCondition condition) {
+        List<MemberConditionFilter> parts = new ArrayList<>(6);
+
+        String username = condition.getUsername();
+        if (StringUtils.hasText(username)) {
+            parts.add((u, age, t) -> username.equals(u));
+        }
+        String teamName = condition.getTeamName();
+        if (StringUtils.hasText(teamName)) {
+            parts.add((u, age, t) -> teamName.equals(t));
+        }
+        Integer ageLoe = condition.getAgeLoe();
+        if (ageLoe != null) {
+            int max = ageLoe;
+            parts.add((u, age, t) -> age <= max);
+        }
+        Integer ageGoe = condition.getAgeGoe();
+        if (ageGoe != null) {
+            int min = ageGoe;
+            parts.add((u, age, t) -> age >= min);
+        }
+        String prefix = condition.getUsernamePrefix();
+        if (StringUtils.hasText(prefix)) {
+            parts.add((u, age, t) -> u != null && u.startsWith(prefix));
+        }
+        String infix = condition.getUsernameContains();
+        if (StringUtils.hasText(infix)) {
+            parts.add((u, age, t) -> u != null && u.contains(infix));
+        }
+
+        if (parts.isEmpty()) {
+            return ALWAYS;
+        }
+        MemberConditionFilter combined = parts.get(0);
+        for (int i = 1; i < parts.size(); i++) {
+            MemberConditionFilter left = combined;
+            MemberConditionFilter right = parts.get(i);
+            combined = (u, age, t) -> left.test(u, age, t) && right.test(u, age, t);
+        }
+        return combined;
+    }
+}
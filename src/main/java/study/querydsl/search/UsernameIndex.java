@@ -0,0 +1,428 @@
+package study.querydsl.search;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import study.querydsl.cache.TableVersions;
+import study.querydsl.event.ChangeEventBus;
+import study.querydsl.event.ChangeType;
+import study.querydsl.event.EntityChangeEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static study.querydsl.entity.QMember.member;
+
+/*
+Member.username 인메모리 인덱스
+    - prefix : username 정렬 맵(TreeMap) 의 범위 조회
+    - infix  : 3-gram 역색인. 검색어의 3-gram posting list 를 교집합한 뒤 실제 username 으로 한번 더 확인
+               (검색어가 3글자 미만이면 전체 username 을 훑는다. 그래도 테이블 스캔보다는 싸다)
+    - 결과는 member_id 정렬된 long[] -> Querydsl 에서 member.id.in(...) 로 쓴다.
+    - null 을 돌려주면 인덱스로 좁힐 수 없다. 호출하는 쪽은 like 로만 찾는다.
+        인덱스가 아직 DB 를 따라잡는 중 (기동 직후, UNRESOLVED 벌크 DML 뒤)
+        후보가 limit 개를 넘음 (넘는 순간 모으기를 멈춘다. 짧은 검색어로 테이블 대부분을 복사/정렬하지 않도록)
+
+동기화
+    - 엔티티 저장/변경/삭제 : UsernameIndexListener
+        커밋 전에는 새 username 을 임시(provisional)로 더하기만 하고, 커밋된 username 은 지우지 않는다.
+        그래서 다른 트랜잭션이 보는 결과는 커밋된 행의 상위집합이다. (남는 id 는 검색의 username 조건이 DB 에서 걸러낸다)
+        커밋되면 최종 값으로 바꾸고(commit), 롤백되면 임시 값만 버린다(rollback).
+    - 벌크 DML             : ChangeEventBus 로 커밋 후에 받는다. id 를 알면 그 id 만 다시 읽는다.
+                             모르면(UNRESOLVED) 전체 재구성을 별도 쓰레드에 맡기고(여러 번 와도 한 번), 끝날 때까지 null 을 돌려준다.
+    - rebuild             : DB 를 읽는 동안 들어온 커밋은 따로 모아 두었다가, 읽은 스냅샷으로 바꾼 뒤에 다시 적용한다.
+*/
+@Component
+public class UsernameIndex {
+
+    private static final int GRAM = 3;
+
+    private final JPAQueryFactory jpaQueryFactory;
+    private final ChangeEventBus changeEventBus;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "username-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> usernames = new HashMap<>();                 // 커밋된 값
+    private final Map<Long, Set<String>> provisional = new HashMap<>();          // 커밋 전 값
+    private final NavigableMap<String, LongPostingList> byUsername = new TreeMap<>();
+    private final Map<String, LongPostingList> grams = new HashMap<>();
+    private Map<Long, String> rebuildReplay;    // rebuild 중에 들어온 커밋 (null 값 = 삭제). rebuild 중이 아니면 null
+
+    // 처음 rebuild 가 끝나기 전까지는 stale (기동 직후의 빈 인덱스로 검색하지 않는다)
+    private final AtomicLong unresolvedChanges = new AtomicLong(1);
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile long rebuiltThrough;
+
+    public UsernameIndex(JPAQueryFactory jpaQueryFactory, ChangeEventBus changeEventBus) {
+        this.jpaQueryFactory = jpaQueryFactory;
+        this.changeEventBus = changeEventBus;
+    }
+
+    /* 다른 ApplicationReadyEvent 리스너(InitMember 샘플 데이터 등)보다 먼저 끝낸다. */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long through = beginRebuild();
+        List<Tuple> rows;
+        try {
+            rows = jpaQueryFactory
+                    .select(member.id, member.username)
+                    .from(member)
+                    .orderBy(member.id.asc())
+                    .fetch();
+        } catch (RuntimeException e) {
+            finishRebuild(rebuiltThrough, null);     // 모아 둔 커밋만 버리고 stale 은 그대로
+            throw e;
+        }
+
+        Map<Long, String> snapshot = new HashMap<>(rows.size() * 2);
+        for (Tuple row : rows) {
+            snapshot.put(row.get(member.id), row.get(member.username));
+        }
+        finishRebuild(through, snapshot);
+    }
+
+    /* 지금까지의 UNRESOLVED 변경 수를 돌려준다. 이 뒤의 커밋은 finishRebuild 에서 다시 적용된다. */
+    long beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuildReplay = new HashMap<>();
+            return unresolvedChanges.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void finishRebuild(long through, Map<Long, String> snapshot) {
+        lock.writeLock().lock();
+        try {
+            Map<Long, String> replay = rebuildReplay;
+            rebuildReplay = null;
+            if (snapshot == null) {
+                return;
+            }
+            usernames.clear();
+            byUsername.clear();
+            grams.clear();
+            snapshot.forEach((id, username) -> {
+                if (id != null && username != null) {
+                    usernames.put(id, username);
+                }
+            });
+            replay.forEach((id, username) -> {
+                if (username == null) {
+                    usernames.remove(id);
+                } else {
+                    usernames.put(id, username);
+                }
+            });
+            usernames.forEach(this::addPostings);
+            provisional.forEach((id, names) -> names.forEach(name -> addPostings(id, name)));
+            rebuiltThrough = through;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        changeEventBus.subscribe(this::onChanges);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /* 커밋된 벌크 DML 만 처리한다. 엔티티 단위 변경은 UsernameIndexListener 가 커밋 시점에 반영한다. */
+    void onChanges(List<EntityChangeEvent> events) {
+        for (EntityChangeEvent event : events) {
+            if (!TableVersions.MEMBER.equals(event.table()) || !event.bulk()) {
+                continue;
+            }
+            if (event.type() == ChangeType.UNRESOLVED) {
+                scheduleRebuild();
+                return;
+            }
+            reload(event.ids());
+        }
+    }
+
+    /* 한 번 예약된 rebuild 가 시작되기 전에 온 UNRESOLVED 는 그 rebuild 하나로 합친다. */
+    void scheduleRebuild() {
+        unresolvedChanges.incrementAndGet();
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    public boolean isStale() {
+        return rebuiltThrough != unresolvedChanges.get();
+    }
+
+    /* 커밋 전 값. 커밋된 username 은 그대로 두고 새 username 으로도 찾히게만 한다. */
+    void provisional(Long id, String username) {
+        if (id == null || username == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (username.equals(usernames.get(id))) {
+                return;
+            }
+            if (provisional.computeIfAbsent(id, k -> new HashSet<>()).add(username)) {
+                addPostings(id, username);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* 커밋된 최종 값 (null 값 = 삭제). 이 id 의 임시 값은 버린다. */
+    void commit(Map<Long, String> committed) {
+        lock.writeLock().lock();
+        try {
+            committed.forEach((id, username) -> replace(id, username, true));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* 롤백: 임시 값만 버린다. 커밋된 값은 건드린 적이 없다. */
+    void rollback(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                removePostings(id);
+                provisional.remove(id);
+                addPostings(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* id 를 아는 벌크 DML 이 커밋된 뒤, DB 의 현재 값으로 다시 맞춘다. */
+    public void reload(List<Long> ids) {
+        List<Tuple> rows = jpaQueryFactory
+                .select(member.id, member.username)
+                .from(member)
+                .where(member.id.in(ids))
+                .fetch();
+
+        Map<Long, String> current = new HashMap<>();
+        ids.forEach(id -> current.put(id, null));
+        for (Tuple row : rows) {
+            current.put(row.get(member.id), row.get(member.username));
+        }
+
+        lock.writeLock().lock();
+        try {
+            current.forEach((id, username) -> replace(id, username, false));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long[] findByPrefix(String prefix, int limit) {
+        if (isStale()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Collection<LongPostingList> matched = byUsername.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+            int n = 0;
+            for (LongPostingList ids : matched) {
+                n += ids.size();
+                if (n > limit) {
+                    return null;    // 같은 id 가 커밋 값 + 임시 값으로 두 번 셀 수 있지만, 그러면 like 로 찾을 뿐이다.
+                }
+            }
+            long[] result = new long[n];
+            n = 0;
+            for (LongPostingList ids : matched) {
+                n = ids.copyTo(result, n);
+            }
+            Arrays.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] findByInfix(String infix, int limit) {
+        if (isStale()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Collector result = new Collector(limit);
+            if (infix.length() < GRAM) {
+                for (Long id : usernames.keySet()) {
+                    if (matches(id, infix) && !result.add(id)) {
+                        return null;
+                    }
+                }
+                for (Long id : provisional.keySet()) {
+                    if (!usernames.containsKey(id) && matches(id, infix) && !result.add(id)) {
+                        return null;
+                    }
+                }
+                return result.sorted();
+            }
+
+            // posting 이 가장 짧은 3-gram 을 돌면서 나머지 3-gram 에 다 있는지 확인한다. (교집합 배열을 만들지 않는다)
+            List<LongPostingList> postings = new ArrayList<>(infix.length() - GRAM + 1);
+            for (int i = 0; i + GRAM <= infix.length(); i++) {
+                LongPostingList list = grams.get(infix.substring(i, i + GRAM));
+                if (list == null) {
+                    return new long[0];
+                }
+                postings.add(list);
+            }
+            postings.sort(Comparator.comparingInt(LongPostingList::size));
+            LongPostingList shortest = postings.get(0);
+            for (int i = 0; i < shortest.size(); i++) {
+                long id = shortest.get(i);
+                if (inAll(postings, id) && matches(id, infix) && !result.add(id)) {   // 3-gram 이 다 있어도 연속이 아닐 수 있다
+                    return null;
+                }
+            }
+            return result.sorted();     // shortest 순서 = id 순서
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean inAll(List<LongPostingList> postings, long id) {
+        for (int i = 1; i < postings.size(); i++) {
+            if (!postings.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* limit 개까지만 모은다. 넘으면 add 가 false */
+    private static final class Collector {
+        private final int limit;
+        private long[] ids = new long[16];
+        private int size;
+
+        Collector(int limit) {
+            this.limit = limit;
+        }
+
+        boolean add(long id) {
+            if (size == limit) {
+                return false;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.min(limit, size * 2));
+            }
+            ids[size++] = id;
+            return true;
+        }
+
+        long[] sorted() {
+            long[] result = Arrays.copyOf(ids, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+
+    /* 커밋된 값이든 임시 값이든 하나라도 infix 를 포함하면 후보 */
+    private boolean matches(long id, String infix) {
+        String committed = usernames.get(id);
+        if (committed != null && committed.contains(infix)) {
+            return true;
+        }
+        Set<String> names = provisional.get(id);
+        return names != null && names.stream().anyMatch(name -> name.contains(infix));
+    }
+
+    /* posting 은 id 하나에 커밋된 값 + 임시 값들이 섞여 있으므로, 전부 빼고 남길 것만 다시 넣는다. */
+    private void replace(Long id, String username, boolean dropProvisional) {
+        if (id == null) {
+            return;
+        }
+        removePostings(id);
+        if (dropProvisional) {
+            provisional.remove(id);
+        }
+        if (username == null) {
+            usernames.remove(id);
+        } else {
+            usernames.put(id, username);
+        }
+        addPostings(id);
+        if (rebuildReplay != null) {
+            rebuildReplay.put(id, username);
+        }
+    }
+
+    private void addPostings(Long id) {
+        String committed = usernames.get(id);
+        if (committed != null) {
+            addPostings(id, committed);
+        }
+        provisional.getOrDefault(id, Set.of()).forEach(name -> addPostings(id, name));
+    }
+
+    private void addPostings(Long id, String username) {
+        byUsername.computeIfAbsent(username, k -> new LongPostingList()).add(id);
+        for (int i = 0; i + GRAM <= username.length(); i++) {
+            grams.computeIfAbsent(username.substring(i, i + GRAM), k -> new LongPostingList()).add(id);
+        }
+    }
+
+    private void removePostings(Long id) {
+        String committed = usernames.get(id);
+        if (committed != null) {
+            removePostings(id, committed);
+        }
+        provisional.getOrDefault(id, Set.of()).forEach(name -> removePostings(id, name));
+    }
+
+    private void removePostings(Long id, String username) {
+        removePosting(byUsername, username, id);
+        for (int i = 0; i + GRAM <= username.length(); i++) {
+            removePosting(grams, username.substring(i, i + GRAM), id);
+        }
+    }
+
+    private void removePosting(Map<String, LongPostingList> index, String key, long id) {
+        LongPostingList postings = index.get(key);
+        if (postings != null && postings.remove(id) && postings.isEmpty()) {
+            index.remove(key);
+        }
+    }
+}
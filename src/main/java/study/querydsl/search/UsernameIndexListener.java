@@ -0,0 +1,71 @@
+package study.querydsl.search;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Member;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+Member 엔티티 변경을 UsernameIndex 에 반영한다. (Hibernate 가 SpringBeanContainer 로 생성)
+    트랜잭션 안에서는 새 username 을 임시 값으로만 더하고, 최종 값은 커밋된 뒤에 넣는다.
+    커밋 전에 커밋된 username 을 지우지 않으므로, 커밋 안 된 이름 변경/삭제가 다른 트랜잭션의 검색에서 행을 숨기지 않는다.
+*/
+public class UsernameIndexListener {
+
+    // EntityManagerFactory 를 만드는 도중에 생성되므로, JPA 에 의존하는 UsernameIndex 는 처음 쓸 때 꺼낸다.
+    private final ObjectProvider<UsernameIndex> usernameIndex;
+
+    public UsernameIndexListener(ObjectProvider<UsernameIndex> usernameIndex) {
+        this.usernameIndex = usernameIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Member member) {
+        changed(member.getId(), member.getUsername());
+    }
+
+    @PostRemove
+    public void onRemove(Member member) {
+        changed(member.getId(), null);
+    }
+
+    /* username == null : 삭제 */
+    private void changed(Long id, String username) {
+        UsernameIndex index = usernameIndex.getObject();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<Long, String> committed = new HashMap<>();
+            committed.put(id, username);
+            index.commit(committed);
+            return;
+        }
+        index.provisional(id, username);
+
+        @SuppressWarnings("unchecked")
+        Map<Long, String> pending = (Map<Long, String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, String> changes = new LinkedHashMap<>();
+            pending = changes;
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(UsernameIndexListener.this);
+                    if (status == STATUS_COMMITTED) {
+                        index.commit(changes);
+                    } else {
+                        index.rollback(changes.keySet());
+                    }
+                }
+            });
+        }
+        pending.put(id, username);     // 같은 트랜잭션에서 여러 번 바뀌면 마지막 값이 커밋된다.
+    }
+}
@@ -0,0 +1,5 @@
+package study.querydsl.sql;
+
+/* SQL 모듈 입력 한 줄. teamId 는 없어도 된다. */
+public record MemberRow(String username, int age, Long teamId) {
+}
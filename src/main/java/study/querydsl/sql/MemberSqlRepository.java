@@ -0,0 +1,310 @@
+package study.querydsl.sql;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.dml.SQLInsertClause;
+import com.querydsl.sql.dml.SQLMergeClause;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import study.querydsl.cache.TableVersionStatementInspector;
+import study.querydsl.cache.TableVersions;
+import study.querydsl.entity.Member;
+import study.querydsl.event.ChangeCapture;
+import study.querydsl.event.ChangeType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static study.querydsl.sql.SMember.member;
+import static study.querydsl.sql.STeam.team;
+import static study.querydsl.sql.SUpsertLock.upsertLock;
+
+/*
+querydsl-sql 로 member 를 대량으로 쓴다. (영속성 컨텍스트를 거치지 않는다)
+    - insertAll : insert into member (...) values (...), (...), ... 를 batchSize 행씩
+    - upsertAll : merge into member key (username) ... 를 batchSize 행씩. username 이 같으면 update, 없으면 insert
+                  username 에 unique 제약이 없으므로 (중복 username 은 정상 데이터) upsert 끼리는 upsert_lock 행 잠금으로 줄을 세운다.
+    - loadCsv   : CSV 스트림을 batchSize 행씩 insertAll. MemberExportJob 이 쓴 파일을 그대로 읽는다.
+    id 는 Member 엔티티와 같은 생성기(PooledIdGenerator)에서 받으므로 JPA 로 저장한 것과 겹치지 않는다.
+    team_name 복사본도 같이 채운다.
+    Hibernate 를 거치지 않으므로 테이블 버전(캐시)과 변경 이벤트(outbox, 인덱스)는 직접 남긴다.
+    이미 영속성 컨텍스트에 올라와 있는 Member 는 갱신되지 않는다. (필요하면 호출한 쪽에서 em.clear)
+*/
+@Repository
+@Transactional
+public class MemberSqlRepository {
+
+    private static final String UPSERT_LOCK_NAME = "member.username";
+
+    private final SQLQueryFactory sqlQueryFactory;
+    private final EntityManager em;
+    private final ChangeCapture changeCapture;
+    private final TableVersionStatementInspector tableWrites;
+    private final int batchSize;
+
+    public MemberSqlRepository(SQLQueryFactory sqlQueryFactory,
+                               EntityManager em,
+                               ChangeCapture changeCapture,
+                               TableVersionStatementInspector tableWrites,
+                               @Value("${querydsl.sql.batch-size:1000}") int batchSize) {
+        this.sqlQueryFactory = sqlQueryFactory;
+        this.em = em;
+        this.changeCapture = changeCapture;
+        this.tableWrites = tableWrites;
+        this.batchSize = batchSize;
+    }
+
+    /* 넣은 순서대로 id 를 돌려준다. */
+    public List<Long> insertAll(List<MemberRow> rows) {
+        em.flush();
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            ids.addAll(insertChunk(rows.subList(from, Math.min(rows.size(), from + batchSize))));
+        }
+        return ids;
+    }
+
+    /* username 기준 upsert. 반영된 행 수를 돌려준다. 같은 username 이 입력에 여럿이면 마지막 것만 쓴다. */
+    public long upsertAll(List<MemberRow> rows) {
+        em.flush();
+        lockUpserts();
+        Map<String, MemberRow> byUsername = new LinkedHashMap<>();
+        for (MemberRow row : rows) {
+            byUsername.put(Objects.requireNonNull(row.username(), "username"), row);
+        }
+        List<MemberRow> unique = new ArrayList<>(byUsername.values());
+        long merged = 0;
+        for (int from = 0; from < unique.size(); from += batchSize) {
+            merged += upsertChunk(unique.subList(from, Math.min(unique.size(), from + batchSize)));
+        }
+        return merged;
+    }
+
+    /*
+    RFC 4180 CSV. 넣은 행 수를 돌려준다.
+        - 첫 줄이 헤더(username 컬럼이 있는 줄)면 컬럼 이름으로 찾는다. memberId, teamName 같은 다른 컬럼은 무시한다. (id 는 새로 받는다)
+        - 헤더가 없으면 username,age,teamId 순서
+        - "..." 안의 쉼표, 줄바꿈, "" (따옴표 하나) 를 읽는다. 따옴표 없는 빈 값은 null (빈 teamId 는 팀 없음)
+    */
+    public long loadCsv(Reader reader) throws IOException {
+        em.flush();
+        Reader in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        List<MemberRow> chunk = new ArrayList<>(batchSize);
+        long loaded = 0;
+        int usernameColumn = 0;
+        int ageColumn = 1;
+        int teamIdColumn = 2;
+        boolean first = true;
+        List<String> record;
+        while ((record = readRecord(in)) != null) {
+            if (first) {
+                first = false;
+                if (record.contains("username")) {
+                    usernameColumn = record.indexOf("username");
+                    ageColumn = record.indexOf("age");
+                    teamIdColumn = record.indexOf("teamId");
+                    continue;
+                }
+            }
+            if (record.size() == 1 && record.get(0) == null) {
+                continue;   // 빈 줄
+            }
+            String age = column(record, ageColumn);
+            String teamId = column(record, teamIdColumn);
+            chunk.add(new MemberRow(column(record, usernameColumn),
+                    Integer.parseInt(Objects.requireNonNull(age, "age").trim()),
+                    StringUtils.hasText(teamId) ? Long.valueOf(teamId.trim()) : null));
+            if (chunk.size() == batchSize) {
+                loaded += insertChunk(chunk).size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            loaded += insertChunk(chunk).size();
+        }
+        return loaded;
+    }
+
+    private static String column(List<String> record, int index) {
+        return index < 0 || index >= record.size() ? null : record.get(index);
+    }
+
+    /* 레코드 하나 (따옴표 안의 줄바꿈은 레코드를 끝내지 않는다). 스트림 끝이면 null */
+    private static List<String> readRecord(Reader in) throws IOException {
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (true) {
+            if (inQuotes) {
+                if (c == -1) {
+                    throw new IOException("unterminated quoted field: " + field);
+                }
+                if (c == '"') {
+                    in.mark(1);
+                    int next = in.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        if (next != -1) {
+                            in.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty() && !quoted) {
+                quoted = true;
+                inQuotes = true;
+            } else if (c == ',' || c == '\n' || c == '\r' || c == -1) {
+                fields.add(quoted || !field.isEmpty() ? field.toString() : null);
+                field.setLength(0);
+                quoted = false;
+                if (c != ',') {
+                    if (c == '\r') {
+                        in.mark(1);
+                        if (in.read() != '\n') {
+                            in.reset();
+                        }
+                    }
+                    return fields;
+                }
+            } else {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+    }
+
+    private List<Long> insertChunk(List<MemberRow> rows) {
+        List<Long> ids = nextIds(rows.size());
+        Map<Long, String> teamNames = teamNames(rows);
+        SQLInsertClause insert = sqlQueryFactory.insert(member);
+        insert.setBatchToBulk(true);    // JDBC batch 대신 values (...), (...) 한 문장
+        for (int i = 0; i < rows.size(); i++) {
+            MemberRow row = rows.get(i);
+            insert.set(member.memberId, ids.get(i))
+                    .set(member.username, row.username())
+                    .set(member.age, row.age())
+                    .set(member.teamId, row.teamId())
+                    .set(member.teamName, row.teamId() == null ? null : teamNames.get(row.teamId()))
+                    .addBatch();
+        }
+        insert.execute();
+        tableWrites.recordWrite(TableVersions.MEMBER);
+        changeCapture.bulkChanged(TableVersions.MEMBER, ChangeType.INSERT, ids);
+        return ids;
+    }
+
+    /*
+    upsert_lock 의 member.username 행을 merge 로 만들거나 갱신해서 트랜잭션 끝까지 잡는다.
+        existingIds 로 읽고 merge 하는 사이에 다른 upsert 가 같은 username 을 넣으면 username 이 중복되므로 upsert 끼리는 한 번에 하나만 돈다.
+        행이 아직 없을 때 두 트랜잭션이 동시에 만들면 한쪽은 pk 충돌로 실패하므로 한 번 더 merge 한다. (이번엔 update 로 잠근다)
+        JPA 로 넣는 Member 는 잠그지 않는다. (username 중복이 허용되는 경로)
+    */
+    private void lockUpserts() {
+        try {
+            mergeLockRow();
+        } catch (DataIntegrityViolationException e) {
+            mergeLockRow();
+        }
+    }
+
+    private void mergeLockRow() {
+        sqlQueryFactory.merge(upsertLock).keys(upsertLock.lockName)
+                .columns(upsertLock.lockName)
+                .values(UPSERT_LOCK_NAME)
+                .execute();
+    }
+
+    private long upsertChunk(List<MemberRow> rows) {
+        Map<String, Long> existing = existingIds(rows);
+        List<MemberRow> created = rows.stream().filter(row -> !existing.containsKey(row.username())).toList();
+        List<Long> newIds = nextIds(created.size());
+        Map<Long, String> teamNames = teamNames(rows);
+
+        SQLMergeClause merge = sqlQueryFactory.merge(member).keys(member.username);
+        List<Long> insertedIds = new ArrayList<>(created.size());
+        List<Long> updatedIds = new ArrayList<>(existing.size());
+        int next = 0;
+        for (MemberRow row : rows) {
+            Long id = existing.get(row.username());
+            if (id == null) {
+                id = newIds.get(next++);
+                insertedIds.add(id);
+            } else {
+                updatedIds.add(id);
+            }
+            merge.columns(member.memberId, member.username, member.age, member.teamId, member.teamName)
+                    .values(id, row.username(), row.age(), row.teamId(),
+                            row.teamId() == null ? null : teamNames.get(row.teamId()))
+                    .addBatch();
+        }
+        long merged = merge.execute();
+        tableWrites.recordWrite(TableVersions.MEMBER);
+        changeCapture.bulkChanged(TableVersions.MEMBER, ChangeType.INSERT, insertedIds);
+        changeCapture.bulkChanged(TableVersions.MEMBER, ChangeType.UPDATE, updatedIds);
+        return merged;
+    }
+
+    /* 기존 행의 member_id 를 그대로 두어야 merge 가 pk 를 바꾸지 않는다. username 이 중복된 기존 행은 upsert 불가 */
+    private Map<String, Long> existingIds(List<MemberRow> rows) {
+        List<Tuple> found = sqlQueryFactory
+                .select(member.username, member.memberId)
+                .from(member)
+                .where(member.username.in(rows.stream().map(MemberRow::username).toList()))
+                .fetch();
+        Map<String, Long> ids = new HashMap<>(found.size() * 2);
+        for (Tuple row : found) {
+            if (ids.put(row.get(member.username), row.get(member.memberId)) != null) {
+                throw new IllegalStateException("username is not unique, cannot upsert: " + row.get(member.username));
+            }
+        }
+        return ids;
+    }
+
+    private Map<Long, String> teamNames(List<MemberRow> rows) {
+        List<Long> teamIds = rows.stream().map(MemberRow::teamId).filter(Objects::nonNull).distinct().toList();
+        if (teamIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, String> names = new HashMap<>(teamIds.size() * 2);
+        for (Tuple row : sqlQueryFactory.select(team.teamId, team.name).from(team).where(team.teamId.in(teamIds)).fetch()) {
+            names.put(row.get(team.teamId), row.get(team.name));
+        }
+        return names;
+    }
+
+    private List<Long> nextIds(int count) {
+        IdentifierGenerator generator = em.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(Member.class)
+                .getIdentifierGenerator();
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add((Long) generator.generate(session, null));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,59 @@
+package study.querydsl.sql;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathMetadata;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.PrimaryKey;
+import com.querydsl.sql.RelationalPathBase;
+
+import java.sql.Types;
+
+import static com.querydsl.core.types.PathMetadataFactory.forVariable;
+
+/*
+member 테이블 SQL Q-type (querydsl-sql MetaDataExporter 출력 형식)
+    엔티티 매핑(Member)이 바뀌면 같이 맞춰야 한다. ddl-auto 로 스키마를 만들기 때문에 빌드 시점에 DB 가 없어서 직접 둔다.
+*/
+public class SMember extends RelationalPathBase<SMember> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final SMember member = new SMember("member");
+
+    public final NumberPath<Long> memberId = createNumber("memberId", Long.class);
+
+    public final StringPath username = createString("username");
+
+    public final NumberPath<Integer> age = createNumber("age", Integer.class);
+
+    public final NumberPath<Long> teamId = createNumber("teamId", Long.class);
+
+    public final StringPath teamName = createString("teamName");
+
+    public final PrimaryKey<SMember> primary = createPrimaryKey(memberId);
+
+    public SMember(String variable) {
+        super(SMember.class, forVariable(variable), "PUBLIC", "MEMBER");
+        addMetadata();
+    }
+
+    public SMember(Path<? extends SMember> path) {
+        super(path.getType(), path.getMetadata(), "PUBLIC", "MEMBER");
+        addMetadata();
+    }
+
+    public SMember(PathMetadata metadata) {
+        super(SMember.class, metadata, "PUBLIC", "MEMBER");
+        addMetadata();
+    }
+
+    public void addMetadata() {
+        addMetadata(memberId, ColumnMetadata.named("MEMBER_ID").withIndex(1).ofType(Types.BIGINT).withSize(64).notNull());
+        addMetadata(username, ColumnMetadata.named("USERNAME").withIndex(2).ofType(Types.VARCHAR).withSize(255));
+        addMetadata(age, ColumnMetadata.named("AGE").withIndex(3).ofType(Types.INTEGER).withSize(32).notNull());
+        addMetadata(teamId, ColumnMetadata.named("TEAM_ID").withIndex(4).ofType(Types.BIGINT).withSize(64));
+        addMetadata(teamName, ColumnMetadata.named("TEAM_NAME").withIndex(5).ofType(Types.VARCHAR).withSize(255));
+    }
+}
@@ -0,0 +1,43 @@
+package study.querydsl.sql;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.PathMetadata;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.PrimaryKey;
+import com.querydsl.sql.RelationalPathBase;
+
+import java.sql.Types;
+
+import static com.querydsl.core.types.PathMetadataFactory.forVariable;
+
+/* upsert_lock 테이블 SQL Q-type (SMember 참고) */
+public class SUpsertLock extends RelationalPathBase<SUpsertLock> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final SUpsertLock upsertLock = new SUpsertLock("upsert_lock");
+
+    public final StringPath lockName = createString("lockName");
+
+    public final PrimaryKey<SUpsertLock> primary = createPrimaryKey(lockName);
+
+    public SUpsertLock(String variable) {
+        super(SUpsertLock.class, forVariable(variable), "PUBLIC", "UPSERT_LOCK");
+        addMetadata();
+    }
+
+    public SUpsertLock(Path<? extends SUpsertLock> path) {
+        super(path.getType(), path.getMetadata(), "PUBLIC", "UPSERT_LOCK");
+        addMetadata();
+    }
+
+    public SUpsertLock(PathMetadata metadata) {
+        super(SUpsertLock.class, metadata, "PUBLIC", "UPSERT_LOCK");
+        addMetadata();
+    }
+
+    public void addMetadata() {
+        addMetadata(lockName, ColumnMetadata.named("LOCK_NAME").withIndex(1).ofType(Types.VARCHAR).withSize(64).notNull());
+    }
+}
@@ -26,8 +26,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberDto;
 import study.querydsl.dto.UserDto;
+import study.querydsl.dto.projection.DtoProjections;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
@@ -845,6 +847,39 @@ public class QuerydslBasicTest {
     }
 
 
+    /* 리플렉션 없는 프로젝션 - DtoProjections (MethodHandle / LambdaMetafactory) */
+    @Test
+    public void findDtoByDtoProjections() throws Exception {
+        queryFactory = new JPAQueryFactory(em);
+
+        List<UserDto> beans = queryFactory
+                .select(DtoProjections.bean(UserDto.class,
+                        member.username.as("name"),
+                        member.age
+                ))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        List<MemberTeamDto> constructed = queryFactory
+                .select(DtoProjections.constructor(MemberTeamDto.class,
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(beans).extracting("name").containsExactly("member1", "member2", "member3", "member4");
+        assertThat(beans).extracting("age").containsExactly(10, 20, 30, 40);
+        assertThat(constructed).extracting("teamName").containsExactly("teamA", "teamA", "teamB", "teamB");
+    }
+
+
     /*
     @QueryProjection
         위의 constructor로 설계하는 것과의 차이! 존재하지 않는 필드를 넣어주면,
@@ -0,0 +1,37 @@
+package study.querydsl.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    public void rejectsWhenLimitAndQueueAreFull() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0, 100, 0.5);
+
+        assertThat(limiter.tryAcquire(0, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(limiter.tryAcquire(0, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(limiter.tryAcquire(10, TimeUnit.MILLISECONDS)).isFalse();
+    }
+
+    @Test
+    public void slowResponsesShrinkAndFastResponsesGrowLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, 0, 100, 0.5);
+
+        // 느린 응답 -> 곱셈 감소
+        limiter.tryAcquire(0, TimeUnit.MILLISECONDS);
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(500), true);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        // 빠른 응답 -> 덧셈 증가
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(0, TimeUnit.MILLISECONDS);
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(1), true);
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(4);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+}
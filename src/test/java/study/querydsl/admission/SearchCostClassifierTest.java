@@ -0,0 +1,45 @@
+package study.querydsl.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import study.querydsl.repository.MemberPagingPolicy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchCostClassifierTest {
+
+    SearchCostClassifier classifier = new SearchCostClassifier(new MemberPagingPolicy(100, 1000), 100, 1000);
+
+    /* /v1 은 페이징이 없어서 필터가 없으면 테이블 전체를 읽는다. */
+    @Test
+    public void unfilteredUnpagedSearchIsExpensive() throws Exception {
+        assertThat(classifier.classify(get("/v1/members"))).isEqualTo(SearchCost.EXPENSIVE);
+        assertThat(classifier.classify(get("/v1/members/stream"))).isEqualTo(SearchCost.EXPENSIVE);
+        assertThat(classifier.classify(get("/v1/members", "ageGoe", "10"))).isEqualTo(SearchCost.EXPENSIVE);
+    }
+
+    @Test
+    public void selectiveUnpagedSearchIsCheap() throws Exception {
+        assertThat(classifier.classify(get("/v1/members", "username", "member1"))).isEqualTo(SearchCost.CHEAP);
+        assertThat(classifier.classify(get("/v1/members", "usernamePrefix", "mem"))).isEqualTo(SearchCost.CHEAP);
+        assertThat(classifier.classify(get("/v1/members/stream", "usernameContains", "ber"))).isEqualTo(SearchCost.CHEAP);
+        assertThat(classifier.classify(get("/v1/members", "ageGoe", "10", "ageLoe", "20"))).isEqualTo(SearchCost.CHEAP);
+    }
+
+    @Test
+    public void pagedSearch() throws Exception {
+        assertThat(classifier.classify(get("/v2/members"))).isEqualTo(SearchCost.CHEAP);
+        assertThat(classifier.classify(get("/v2/members", "size", "500"))).isEqualTo(SearchCost.EXPENSIVE);
+        assertThat(classifier.classify(get("/v2/members", "size", "500", "usernamePrefix", "mem"))).isEqualTo(SearchCost.CHEAP);
+        assertThat(classifier.classify(get("/v2/members", "page", "100", "size", "20"))).isEqualTo(SearchCost.EXPENSIVE);
+        assertThat(classifier.classify(get("/v2/members", "sort", "teamName"))).isEqualTo(SearchCost.EXPENSIVE);
+    }
+
+    private MockHttpServletRequest get(String uri, String... params) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        for (int i = 0; i < params.length; i += 2) {
+            request.addParameter(params[i], params[i + 1]);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,80 @@
+package study.querydsl.batch;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.batch.MemberBatchProcessor.BatchResult;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest(properties = "querydsl.batch.commit-every=10")
+@Transactional
+class MemberBatchProcessorTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberBatchProcessor batchProcessor;
+
+    @Test
+    public void forEachRow() throws Exception {
+        // given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Member saved = new Member("batch" + i, i);
+            em.persist(saved);
+            ids.add(saved.getId());
+        }
+        em.flush();
+        em.clear();
+
+        // when - 짝수 나이만 +100
+        BatchResult result = batchProcessor.forEachRow(member.username.startsWith("batch"), row -> {
+            if (row.getAge() % 2 == 0) {
+                row.setAge(row.getAge() + 100);
+            }
+        });
+
+        // then
+        assertThat(result.read()).isEqualTo(25);
+        assertThat(result.written()).isEqualTo(13);
+        assertThat(em.find(Member.class, ids.get(0)).getAge()).isEqualTo(100);
+        assertThat(em.find(Member.class, ids.get(1)).getAge()).isEqualTo(1);
+    }
+
+    @Test
+    public void forEachChunkReassignsTeam() throws Exception {
+        Team team = new Team("batchTeam");
+        em.persist(team);
+        for (int i = 0; i < 12; i++) {
+            em.persist(new Member("chunk" + i, i));
+        }
+        em.flush();
+        em.clear();
+        Team target = em.find(Team.class, team.getId());
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        BatchResult result = batchProcessor.forEachChunk(member.username.startsWith("chunk"), chunk -> {
+            chunkSizes.add(chunk.size());
+            chunk.forEach(row -> row.changeTeam(target));
+        });
+
+        assertThat(chunkSizes).containsExactly(10, 2);
+        assertThat(result.written()).isEqualTo(12);
+        em.clear();
+        List<Member> moved = em.createQuery("select m from Member m where m.username like 'chunk%'", Member.class)
+                .getResultList();
+        assertThat(moved).allSatisfy(row -> {
+            assertThat(row.getTeam().getId()).isEqualTo(team.getId());
+            assertThat(row.getTeamName()).isEqualTo("batchTeam");
+        });
+    }
+}
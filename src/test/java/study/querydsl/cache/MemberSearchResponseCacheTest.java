@@ -0,0 +1,60 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import study.querydsl.dto.codec.MemberTeamBinaryCodec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberSearchResponseCacheTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void etagDependsOnRepresentation() throws Exception {
+        MockHttpServletResponse json = search(MediaType.APPLICATION_JSON_VALUE, null);
+        MockHttpServletResponse binary = search(MemberTeamBinaryCodec.MEDIA_TYPE, null);
+
+        assertThat(json.getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(binary.getContentType()).startsWith(MemberTeamBinaryCodec.MEDIA_TYPE);
+        assertThat(json.getHeader(HttpHeaders.ETAG)).isNotEqualTo(binary.getHeader(HttpHeaders.ETAG));
+        assertThat(json.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+        assertThat(binary.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+
+        // JSON ETag 로 바이너리를 조건부 요청하면 304 가 아니라 새 body 를 받아야 한다.
+        assertThat(search(MemberTeamBinaryCodec.MEDIA_TYPE, json.getHeader(HttpHeaders.ETAG)).getStatus()).isEqualTo(200);
+        assertThat(search(MediaType.APPLICATION_JSON_VALUE, json.getHeader(HttpHeaders.ETAG)).getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    public void negotiate() throws Exception {
+        MediaType binary = MediaType.parseMediaType(MemberTeamBinaryCodec.MEDIA_TYPE);
+
+        assertThat(MemberSearchResponseCache.negotiate(null)).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(MemberSearchResponseCache.negotiate("*/*")).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(MemberSearchResponseCache.negotiate("application/*")).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(MemberSearchResponseCache.negotiate(MemberTeamBinaryCodec.MEDIA_TYPE)).isEqualTo(binary);
+        assertThat(MemberSearchResponseCache.negotiate("application/json;q=0.5, " + MemberTeamBinaryCodec.MEDIA_TYPE))
+                .isEqualTo(binary);
+        assertThat(MemberSearchResponseCache.negotiate(MemberTeamBinaryCodec.MEDIA_TYPE + ";q=0.1, application/json"))
+                .isEqualTo(MediaType.APPLICATION_JSON);
+    }
+
+    private MockHttpServletResponse search(String accept, String ifNoneMatch) throws Exception {
+        var request = get("/v2/members").param("page", "0").param("size", "5").accept(accept);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
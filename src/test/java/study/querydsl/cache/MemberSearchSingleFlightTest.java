@@ -0,0 +1,140 @@
+package study.querydsl.cache;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+/*
+트랜잭션 밖에서 같은 검색이 동시에 N 개 들어오면 DB 에는 한 번(검색 1회 분량의 SQL)만 나가야 한다.
+    leader 의 첫 SQL 을 StatementInspector 에서 잡아두고, 나머지가 전부 합류한 뒤에 풀어준다.
+    SQL 수는 StatementInspector 로 호출 스레드 것만 센다.
+*/
+@SpringBootTest
+class MemberSearchSingleFlightTest {
+
+    private static final String CALLER = "flight-caller-";
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberSearchSingleFlight singleFlight;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @SpyBean
+    TableVersionStatementInspector inspector;
+
+    @AfterEach
+    public void cleanUp() {
+        reset(inspector);
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'flight%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name = 'flightTeam'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void concurrentIdenticalSearchesRunOneQuery() throws Exception {
+        // given
+        transactionTemplate.executeWithoutResult(status -> {
+            Team flightTeam = new Team("flightTeam");
+            em.persist(flightTeam);
+            for (int i = 0; i < 3; i++) {
+                em.persist(new Member("flight" + i, 10 + i, flightTeam));
+            }
+        });
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("flightTeam");
+        PageRequest pageable = PageRequest.of(0, 10);
+
+        // 호출 스레드에서 나간 SQL 만 센다. (Statistics 는 전역이라 버스 구독자 같은 백그라운드 쿼리까지 섞인다)
+        AtomicInteger callerStatements = new AtomicInteger();
+        CountDownLatch leaderInDb = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean armed = new AtomicBoolean(false);
+        doAnswer(invocation -> {
+            if (Thread.currentThread().getName().startsWith(CALLER)) {
+                callerStatements.incrementAndGet();
+                if (armed.compareAndSet(true, false)) {
+                    leaderInDb.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                }
+            }
+            return invocation.callRealMethod();
+        }).when(inspector).inspect(anyString());
+
+        int callers = 8;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(callers, r -> new Thread(r, CALLER + threadNumber.incrementAndGet()));
+        try {
+            // 한 번 실행할 때 나가는 SQL 수
+            executor.submit(() -> memberRepository.searchPageSimple(condition, pageable)).get(10, TimeUnit.SECONDS);
+            int singleRun = callerStatements.getAndSet(0);
+            assertThat(singleRun).isPositive();
+
+            // when - leader 의 첫 SQL 을 잡아둔 채로 나머지가 모두 합류
+            armed.set(true);
+            long coalescedBefore = singleFlight.getCoalescedCount();
+            long executedBefore = singleFlight.getExecutedCount();
+            List<Future<Page<MemberTeamDto>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> memberRepository.searchPageSimple(condition, pageable)));
+            }
+            assertThat(leaderInDb.await(10, TimeUnit.SECONDS)).isTrue();
+            while (singleFlight.getCoalescedCount() - coalescedBefore < callers - 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            List<Page<MemberTeamDto>> pages = new ArrayList<>();
+            for (Future<Page<MemberTeamDto>> result : results) {
+                pages.add(result.get(10, TimeUnit.SECONDS));
+            }
+
+            // then
+            assertThat(singleFlight.getExecutedCount() - executedBefore).isEqualTo(1);
+            assertThat(callerStatements.get()).isEqualTo(singleRun);
+            for (Page<MemberTeamDto> page : pages) {
+                assertThat(page.getContent()).extracting("username")
+                        .containsExactlyInAnyOrder("flight0", "flight1", "flight2");
+            }
+
+            // 호출마다 자기 사본을 받는다.
+            pages.get(0).getContent().forEach(dto -> dto.setUsername("changed"));
+            for (Page<MemberTeamDto> page : pages.subList(1, pages.size())) {
+                assertThat(page.getContent()).isNotSameAs(pages.get(0).getContent());
+                assertThat(page.getContent()).extracting("username").doesNotContain("changed");
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
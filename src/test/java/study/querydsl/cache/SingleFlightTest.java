@@ -0,0 +1,95 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    @Test
+    public void concurrentCallsShareOneExecution() throws Exception {
+        // given
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        // when - leader 가 끝나기 전에 나머지가 모두 같은 키로 들어온다.
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("teamA:0", () -> {
+                queries.incrementAndGet();
+                await(release);
+                return 42;
+            })));
+        }
+        while (singleFlight.getCoalescedCount() < callers - 1) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        // then
+        for (Future<Integer> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        }
+        assertThat(queries.get()).isEqualTo(1);
+        assertThat(singleFlight.getExecutedCount()).isEqualTo(1);
+        assertThat(singleFlight.getCoalescedCount()).isEqualTo(callers - 1);
+        assertThat(singleFlight.getInFlightCount()).isZero();
+        executor.shutdown();
+    }
+
+    @Test
+    public void differentKeysRunSeparately() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+        singleFlight.execute("teamA:0", () -> 1);
+        singleFlight.execute("teamB:0", () -> 2);
+
+        assertThat(singleFlight.getExecutedCount()).isEqualTo(2);
+        assertThat(singleFlight.getCoalescedCount()).isZero();
+    }
+
+    @Test
+    public void followersGetCopies() throws Exception {
+        SingleFlight<String, List<String>> singleFlight = new SingleFlight<>(ArrayList::new);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Future<List<String>> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            await(release);
+            return new ArrayList<>(List.of("a"));
+        }));
+        while (singleFlight.getInFlightCount() == 0) {
+            Thread.sleep(1);
+        }
+        Future<List<String>> follower = executor.submit(() -> singleFlight.execute("key", () -> List.of("never")));
+        while (singleFlight.getCoalescedCount() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        List<String> leaderResult = leader.get(5, TimeUnit.SECONDS);
+        leaderResult.add("changed by leader");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).containsExactly("a").isNotSameAs(leaderResult);
+        executor.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
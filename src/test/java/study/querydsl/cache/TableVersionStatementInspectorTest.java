@@ -0,0 +1,71 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TableVersionStatementInspectorTest {
+
+    TableVersions tableVersions = new TableVersions();
+    List<Object> events = new ArrayList<>();
+    TableVersionStatementInspector inspector = new TableVersionStatementInspector(tableVersions, events::add);
+
+    @Test
+    public void writesBumpVersion() throws Exception {
+        String before = tableVersions.memberTeamVersion();
+
+        inspector.inspect("/* update Member member1 set member1.age = ?1 */ update member m1_0 set age=(m1_0.age+?)");
+        inspector.inspect("insert into team (name,team_id) values (?,?)");
+
+        assertThat(tableVersions.memberTeamVersion()).isNotEqualTo(before).isEqualTo("1.1");
+    }
+
+    /* flush 안에서 나간 쓰기만 엔티티 쓰기다. */
+    @Test
+    public void onlyBulkDmlPublishesEvent() throws Exception {
+        EntityFlushTracker tracker = new EntityFlushTracker();
+        tracker.flushStart();
+        try {
+            inspector.inspect("/* insert for study.querydsl.entity.Member */insert into member (age,team_id,username,member_id) values (?,?,?,?)");
+            inspector.inspect("update member set age=?,team_id=?,username=? where member_id=?");
+        } finally {
+            tracker.flushEnd(2, 0);
+        }
+        assertThat(events).isEmpty();
+
+        inspector.inspect("delete from member m1_0 where m1_0.age>?");
+        assertThat(events).containsExactly(new BulkDmlEvent(BulkDmlEvent.MEMBER));
+    }
+
+    /* 엔티티 쓰기와 모양이 같은 벌크 update 도 flush 밖이면 벌크 DML 이다. */
+    @Test
+    public void bulkUpdateShapedLikeEntityWrite() throws Exception {
+        inspector.inspect("update member set team_name=? where team_id=?");
+        inspector.inspect("delete from team where team_id=?");
+
+        assertThat(events).containsExactly(new BulkDmlEvent(BulkDmlEvent.MEMBER), new BulkDmlEvent(BulkDmlEvent.TEAM));
+    }
+
+    /* 세션이 flush 중에 닫혀도 (예외) 표시가 남지 않는다. */
+    @Test
+    public void sessionEndClearsFlushMark() throws Exception {
+        EntityFlushTracker tracker = new EntityFlushTracker();
+        tracker.flushStart();
+        tracker.partialFlushStart();
+        assertThat(EntityFlushTracker.isFlushing()).isTrue();
+
+        tracker.end();
+
+        assertThat(EntityFlushTracker.isFlushing()).isFalse();
+    }
+
+    @Test
+    public void readsDoNotBumpVersion() throws Exception {
+        inspector.inspect("select m1_0.member_id from member m1_0 left join team t1_0 on t1_0.team_id=m1_0.team_id");
+
+        assertThat(tableVersions.memberTeamVersion()).isEqualTo("0.0");
+    }
+}
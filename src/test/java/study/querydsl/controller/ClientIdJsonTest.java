@@ -0,0 +1,63 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/* client id 모드의 id 는 2^53 을 넘으므로 /v1/members, /v1/members/stream 모두 문자열로 내야 한다. */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.querydsl.id.mode=client",
+        "spring.jpa.properties.querydsl.id.node=7"
+})
+@AutoConfigureMockMvc
+@Transactional
+class ClientIdJsonTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    public void idsAreStrings() throws Exception {
+        // given
+        Team team = new Team("clientIdTeam");
+        em.persist(team);
+        Member member = new Member("clientId1", 10, team);
+        em.persist(member);
+        em.flush();
+
+        assertThat(member.getId()).isGreaterThan(1L << 53);
+
+        for (String uri : new String[]{"/v1/members", "/v1/members/stream"}) {
+            // when
+            String body = mockMvc.perform(get(uri).param("username", "clientId1").accept(MediaType.APPLICATION_JSON))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString(StandardCharsets.UTF_8);
+            JsonNode row = objectMapper.readTree(body).get(0);
+
+            // then
+            assertThat(row.get("memberId").isTextual()).as(uri).isTrue();
+            assertThat(row.get("memberId").asText()).as(uri).isEqualTo(member.getId().toString());
+            assertThat(row.get("teamId").asText()).as(uri).isEqualTo(team.getId().toString());
+            assertThat(row.get("age").isNumber()).as(uri).isTrue();
+        }
+    }
+}
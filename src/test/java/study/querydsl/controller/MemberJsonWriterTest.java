@@ -0,0 +1,101 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/* /v1/members/stream 은 /v1/members 와 같은 JSON 을 내야 한다. */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberJsonWriterTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    public void streamMatchesV1() throws Exception {
+        Team team = new Team("streamTeam");
+        em.persist(team);
+        em.persist(new Member("stream1", 10, team));
+        em.persist(new Member("stream2", 20, team));
+        em.persist(new Member("stream3", 30, team));
+        em.flush();
+
+        String streamed = body("/v1/members/stream", "teamName", "streamTeam");
+        String v1 = body("/v1/members", "teamName", "streamTeam");
+
+        assertThat(sortedById(streamed)).isEqualTo(sortedById(v1));
+        assertThat(sortedById(streamed)).hasSize(3);
+    }
+
+    @Test
+    public void streamWithoutTeam() throws Exception {
+        em.persist(new Member("streamNoTeam", 10));
+        em.flush();
+
+        String streamed = body("/v1/members/stream", "username", "streamNoTeam");
+
+        assertThat(objectMapper.readTree(streamed)).isEqualTo(objectMapper.readTree(body("/v1/members", "username", "streamNoTeam")));
+        assertThat(objectMapper.readTree(streamed).get(0).get("teamId").isNull()).isTrue();
+        assertThat(objectMapper.readTree(streamed).get(0).get("teamName").isNull()).isTrue();
+    }
+
+    @Test
+    public void streamEmpty() throws Exception {
+        String streamed = body("/v1/members/stream", "username", "nobody-" + System.nanoTime());
+
+        assertThat(streamed).isEqualTo("[]");
+    }
+
+    @Test
+    public void streamEscaping() throws Exception {
+        String username = "quote\" back\\slash\n tab\t 한글 </script> \u0001";
+        Team team = new Team("escape \"team\"");
+        em.persist(team);
+        em.persist(new Member(username, 10, team));
+        em.flush();
+
+        String streamed = body("/v1/members/stream", "username", username);
+        String v1 = body("/v1/members", "username", username);
+
+        assertThat(objectMapper.readTree(streamed)).isEqualTo(objectMapper.readTree(v1));
+        assertThat(objectMapper.readTree(streamed).get(0).get("username").asText()).isEqualTo(username);
+        assertThat(objectMapper.readTree(streamed).get(0).get("teamName").asText()).isEqualTo("escape \"team\"");
+    }
+
+    private String body(String uri, String param, String value) throws Exception {
+        return mockMvc.perform(get(uri).param(param, value).accept(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private List<JsonNode> sortedById(String json) throws Exception {
+        List<JsonNode> rows = new ArrayList<>();
+        objectMapper.readTree(json).forEach(rows::add);
+        rows.sort(Comparator.comparingLong(row -> row.get("memberId").asLong()));
+        return rows;
+    }
+}
@@ -0,0 +1,33 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.controller.MemberTeamBinaryMessageConverter.MEDIA_TYPE;
+
+class MemberTeamBinaryMessageConverterTest {
+
+    private final MemberTeamBinaryMessageConverter converter = new MemberTeamBinaryMessageConverter();
+
+    @Test
+    public void writesOnlyMemberTeamContainers() throws Exception {
+        assertThat(converter.canWrite(generic(List.class, MemberTeamDto.class), List.class, MEDIA_TYPE)).isTrue();
+        assertThat(converter.canWrite(generic(Page.class, MemberTeamDto.class), Page.class, MEDIA_TYPE)).isTrue();
+
+        assertThat(converter.canWrite(generic(List.class, String.class), List.class, MEDIA_TYPE)).isFalse();
+        assertThat(converter.canWrite(null, List.class, MEDIA_TYPE)).isFalse();
+        // 원소 타입을 모르는 비제네릭 경로는 받지 않는다.
+        assertThat(converter.canWrite(List.class, MEDIA_TYPE)).isFalse();
+        assertThat(converter.canRead(List.class, MEDIA_TYPE)).isFalse();
+    }
+
+    private Type generic(Class<?> container, Class<?> element) {
+        return ResolvableType.forClassWithGenerics(container, element).getType();
+    }
+}
@@ -0,0 +1,100 @@
+package study.querydsl.dto.codec;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.codec.MemberTeamBinaryCodec.MemberTeamChunk;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberTeamBinaryCodecTest {
+
+    @Test
+    public void roundTrip() throws Exception {
+        // given
+        List<MemberTeamDto> content = List.of(
+                new MemberTeamDto(1L, "member1", 10, 1L, "teamA"),
+                new MemberTeamDto(2L, "회원2", -5, 1L, "teamA"),
+                new MemberTeamDto(3L, null, Integer.MAX_VALUE, null, null)
+        );
+        MemberTeamChunk page = new MemberTeamChunk(content, true, 2, 3, 123);
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MemberTeamBinaryCodec.encode(page, out);
+        MemberTeamChunk decoded = MemberTeamBinaryCodec.decode(new ByteArrayInputStream(out.toByteArray()));
+
+        // then
+        assertThat(decoded).isEqualTo(page);
+    }
+
+    @Test
+    public void teamNameIsDictionaryEncoded() throws Exception {
+        List<MemberTeamDto> content = new ArrayList<>();
+        for (long i = 0; i < 100; i++) {
+            content.add(new MemberTeamDto(i, "m", 20, 1L, "a-very-long-team-name"));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MemberTeamBinaryCodec.encode(MemberTeamChunk.ofList(content), out);
+
+        // 팀명은 사전에 한번만 들어간다.
+        assertThat(out.size()).isLessThan(100 * "a-very-long-team-name".length());
+    }
+
+    /* null 은 bitmap 으로 표시하므로 -1 같은 음수 id 도 null 이 되지 않는다 */
+    @Test
+    public void negativeIdsRoundTrip() throws Exception {
+        List<MemberTeamDto> content = List.of(
+                new MemberTeamDto(-1L, "", 0, -1L, "teamA"),
+                new MemberTeamDto(Long.MIN_VALUE, "m", Integer.MIN_VALUE, Long.MAX_VALUE, null),
+                new MemberTeamDto(null, "n", 1, null, null)
+        );
+        MemberTeamChunk list = MemberTeamChunk.ofList(content);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MemberTeamBinaryCodec.encode(list, out);
+        MemberTeamChunk decoded = MemberTeamBinaryCodec.decode(new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(decoded).isEqualTo(list);
+    }
+
+    @Test
+    public void rejectsCountLargerThanInput() throws Exception {
+        // version 2, unpaged, page 0, size 0, total 0, rowCount 2^32 - 1
+        byte[] input = {2, 0, 0, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 0};
+
+        assertThatThrownBy(() -> MemberTeamBinaryCodec.decode(new ByteArrayInputStream(input)))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void rejectsNegativeStringLength() throws Exception {
+        // 행 1개, 사전 0개, memberId bitmap 0, username 길이 varint = -1 (10바이트)
+        byte[] input = new byte[18];
+        byte[] head = {2, 0, 0, 1, 1, 1, 0, 0};
+        System.arraycopy(head, 0, input, 0, head.length);
+        Arrays.fill(input, head.length, head.length + 9, (byte) 0xFF);
+        input[head.length + 9] = 0x01;
+
+        assertThatThrownBy(() -> MemberTeamBinaryCodec.decode(new ByteArrayInputStream(input)))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    public void rejectsTruncatedInput() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MemberTeamBinaryCodec.encode(MemberTeamChunk.ofList(List.of(new MemberTeamDto(1L, "member1", 10, 1L, "teamA"))), out);
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 3);
+
+        assertThatThrownBy(() -> MemberTeamBinaryCodec.decode(new ByteArrayInputStream(truncated)))
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,64 @@
+package study.querydsl.dto.projection;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.QBean;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.UserDto;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+class DtoProjectionsTest {
+
+    @Test
+    public void equalProjectionsShareHashCode() throws Exception {
+        DtoProjection<UserDto> a = DtoProjections.bean(UserDto.class, member.username.as("name"), member.age);
+        DtoProjection<UserDto> b = DtoProjections.bean(UserDto.class, member.username.as("name"), member.age);
+        DtoProjection<MemberDto> other = DtoProjections.bean(MemberDto.class, member.username, member.age);
+
+        assertThat(a).isEqualTo(b);
+        assertThat(a.hashCode()).isEqualTo(b.hashCode());
+        assertThat(a).isNotEqualTo(other);
+        assertThat(Set.of(a, other)).contains(b);
+    }
+
+    /* QBean 등 다른 FactoryExpression 과는 같지 않고 (대칭), bean 과 constructor 도 서로 다르다. */
+    @Test
+    public void equalityIsSymmetricAndKindAware() throws Exception {
+        DtoProjection<MemberDto> bean = DtoProjections.bean(MemberDto.class, member.username, member.age);
+        DtoProjection<MemberDto> constructor = DtoProjections.constructor(MemberDto.class, member.username, member.age);
+        QBean<MemberDto> qBean = Projections.bean(MemberDto.class, member.username, member.age);
+
+        assertThat(bean).isNotEqualTo(constructor);
+        assertThat(bean.equals(qBean)).isEqualTo(qBean.equals(bean)).isFalse();
+    }
+
+    /* 별칭이 같아도 인자 타입이 다르면 다른 setter 를 쓴다. (캐시 키에 타입 포함) */
+    @Test
+    public void beanCacheKeyIncludesArgumentTypes() throws Exception {
+        DtoProjection<Overloaded> byAge = DtoProjections.bean(Overloaded.class, member.age.as("value"));
+        DtoProjection<Overloaded> byName = DtoProjections.bean(Overloaded.class, member.username.as("value"));
+
+        assertThat(byAge.newInstance(10).getValue()).isEqualTo("int:10");
+        assertThat(byName.newInstance("kim").getValue()).isEqualTo("string:kim");
+    }
+
+    public static class Overloaded {
+        private String value;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(Integer value) {
+            this.value = "int:" + value;
+        }
+
+        public void setValue(String value) {
+            this.value = "string:" + value;
+        }
+    }
+}
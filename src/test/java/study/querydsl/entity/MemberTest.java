@@ -1,6 +1,10 @@
 package study.querydsl.entity;
 
 import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -50,4 +54,101 @@ class MemberTest {
             System.out.println("member.getTeam() = " + member.getTeam().getName());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void changeTeamDoesNotLoadMembers() throws Exception {
+        Cost small = changeTeamCost(10);
+        Cost large = changeTeamCost(1000);
+
+        // 팀 크기가 100배여도 SQL 수와 영속성 컨텍스트 크기는 같다.
+        assertEquals(small, large);
+    }
+
+    @Test
+    public void changeTeamRemovesFromLoadedOldTeam() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member = new Member("member1", 10, teamA);
+        em.persist(member);
+        em.flush();
+        em.clear();
+
+        Member findMember = em.find(Member.class, member.getId());
+        Team oldTeam = em.find(Team.class, teamA.getId());
+        Team newTeam = em.find(Team.class, teamB.getId());
+        assertEquals(1, oldTeam.getMembers().size());   // 로딩
+
+        findMember.changeTeam(newTeam);
+
+        assertFalse(oldTeam.getMembers().contains(findMember));
+        assertFalse(Hibernate.isInitialized(newTeam.getMembers()));
+        em.flush();
+        em.clear();
+        assertEquals(1, em.find(Team.class, teamB.getId()).getMembers().size());
+    }
+
+    /* changeTeam(team) 은 프록시를 초기화한다(teamName 때문에). 이름을 넘기면 초기화하지 않는다. */
+    @Test
+    public void changeTeamWithNameKeepsProxy() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member = new Member("member1", 10, teamA);
+        em.persist(member);
+        em.flush();
+        em.clear();
+
+        Member findMember = em.find(Member.class, member.getId());
+        Team reference = em.getReference(Team.class, teamB.getId());
+        findMember.changeTeam(reference, "teamB");
+
+        assertFalse(Hibernate.isInitialized(reference));
+        assertEquals("teamB", findMember.getTeamName());
+
+        findMember.changeTeam(em.getReference(Team.class, teamA.getId()));
+        assertTrue(Hibernate.isInitialized(findMember.getTeam()));   // team select 한 번
+        assertEquals("teamA", findMember.getTeamName());
+    }
+
+    private Cost changeTeamCost(int teamSize) {
+        Team oldTeam = new Team("old" + teamSize);
+        Team newTeam = new Team("new" + teamSize);
+        em.persist(oldTeam);
+        em.persist(newTeam);
+        Member moving = new Member("moving" + teamSize, 10, oldTeam);
+        em.persist(moving);
+        for (int i = 0; i < teamSize; i++) {
+            em.persist(new Member("old" + teamSize + "_" + i, i, oldTeam));
+            em.persist(new Member("new" + teamSize + "_" + i, i, newTeam));
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            Member findMember = em.find(Member.class, moving.getId());
+            Team findOld = em.find(Team.class, oldTeam.getId());
+            Team findNew = em.find(Team.class, newTeam.getId());
+
+            findMember.changeTeam(findNew);
+            em.flush();
+
+            assertFalse(Hibernate.isInitialized(findOld.getMembers()));
+            assertFalse(Hibernate.isInitialized(findNew.getMembers()));
+            int managed = em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+            Cost cost = new Cost(statistics.getPrepareStatementCount(), managed);
+            em.clear();
+            return cost;
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    private record Cost(long statements, int managedEntities) {
+    }
+}
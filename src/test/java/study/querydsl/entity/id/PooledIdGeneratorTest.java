@@ -0,0 +1,28 @@
+package study.querydsl.entity.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PooledIdGeneratorTest {
+
+    /* client 모드에서 node 를 안 정하면 모든 인스턴스가 node 0 으로 같은 id 를 만든다. -> 기동 실패 */
+    @Test
+    public void clientModeRequiresNode() throws Exception {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(PooledIdGenerator.MODE, "client")
+                .build();
+        try {
+            assertThatThrownBy(() -> new PooledIdGenerator().configure(null, new Properties(), registry))
+                    .isInstanceOf(MappingException.class)
+                    .hasMessageContaining(PooledIdGenerator.NODE);
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package study.querydsl.event;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.cache.TableVersions;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/*
+세 가지 쓰기 경로가 커밋 후에 ChangeEventBus 로 나오는지 확인한다. (롤백되면 안 나온다)
+    커밋은 실제로 해야 하므로 @Transactional 대신 TransactionTemplate 을 쓰고, 끝나면 지운다.
+*/
+@SpringBootTest
+class ChangeCaptureTest {
+
+    @Autowired
+    ChangeEventBus bus;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private final List<EntityChangeEvent> received = new CopyOnWriteArrayList<>();
+    private final Consumer<List<EntityChangeEvent>> collector = received::addAll;
+
+    @BeforeEach
+    public void subscribe() {
+        bus.subscribe(collector);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        bus.unsubscribe(collector);
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("delete from Member m where m.username like 'capture%'").executeUpdate());
+    }
+
+    @Test
+    public void persistIsPublishedAfterCommit() throws Exception {
+        // when
+        Member saved = transactionTemplate.execute(status -> {
+            Member captured = new Member("capturePersist", 10);
+            em.persist(captured);
+            em.flush();
+            assertThat(received).noneMatch(event -> event.ids().contains(captured.getId()));   // 커밋 전에는 안 나간다.
+            return captured;
+        });
+
+        // then
+        assertThat(memberEvents(saved.getId())).singleElement().satisfies(event -> {
+            assertThat(event.type()).isEqualTo(ChangeType.INSERT);
+            assertThat(event.bulk()).isFalse();
+        });
+    }
+
+    @Test
+    public void dirtyCheckingIsPublished() throws Exception {
+        // given
+        Long id = persist("captureDirty");
+        received.clear();
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> em.find(Member.class, id).setAge(99));
+
+        // then
+        assertThat(memberEvents(id)).extracting(EntityChangeEvent::type).containsExactly(ChangeType.UPDATE);
+    }
+
+    /* id 를 아는 벌크 DML 은 id 목록과 함께 나가고, UNRESOLVED 는 따로 나가지 않는다. */
+    @Test
+    public void resolvedBulkCarriesIds() throws Exception {
+        // given
+        Long id1 = persist("captureBulk1");
+        Long id2 = persist("captureBulk2");
+        received.clear();
+
+        // when
+        transactionTemplate.executeWithoutResult(status ->
+                memberJpaRepository.bulkAddAge(member.username.startsWith("captureBulk"), 1));
+
+        // then
+        assertThat(bus.awaitDelivery(5_000)).isTrue();
+        assertThat(received).noneMatch(event -> event.type() == ChangeType.UNRESOLVED);
+        assertThat(memberEvents(id1)).singleElement().satisfies(event -> {
+            assertThat(event.type()).isEqualTo(ChangeType.UPDATE);
+            assertThat(event.bulk()).isTrue();
+            assertThat(event.ids()).containsExactlyInAnyOrder(id1, id2);
+        });
+    }
+
+    /* where team_id=? 하나뿐인 JPQL 벌크 update 도 UNRESOLVED 로 나간다. (엔티티 쓰기로 잘못 보지 않는다) */
+    @Test
+    public void bulkUpdateByTeamIsUnresolved() throws Exception {
+        // given
+        Team team = transactionTemplate.execute(status -> {
+            Team saved = new Team("captureTeam");
+            em.persist(saved);
+            em.persist(new Member("captureByTeam", 10, saved));
+            return saved;
+        });
+        assertThat(bus.awaitDelivery(5_000)).isTrue();
+        received.clear();
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> em
+                .createQuery("update Member m set m.teamName = :name where m.team.id = :teamId")
+                .setParameter("name", "captureRenamed")
+                .setParameter("teamId", team.getId())
+                .executeUpdate());
+
+        // then
+        assertThat(bus.awaitDelivery(5_000)).isTrue();
+        assertThat(received).anySatisfy(event -> {
+            assertThat(event.table()).isEqualTo(TableVersions.MEMBER);
+            assertThat(event.type()).isEqualTo(ChangeType.UNRESOLVED);
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.team.id = :teamId").setParameter("teamId", team.getId()).executeUpdate();
+            em.createQuery("delete from Team t where t.id = :teamId").setParameter("teamId", team.getId()).executeUpdate();
+        });
+    }
+
+    @Test
+    public void rollbackPublishesNothing() throws Exception {
+        // when
+        Long id = transactionTemplate.execute(status -> {
+            Member rolledBack = new Member("captureRollback", 10);
+            em.persist(rolledBack);
+            em.flush();
+            status.setRollbackOnly();
+            return rolledBack.getId();
+        });
+
+        // then
+        assertThat(memberEvents(id)).isEmpty();
+    }
+
+    private Long persist(String username) throws Exception {
+        Long id = transactionTemplate.execute(status -> {
+            Member saved = new Member(username, 10);
+            em.persist(saved);
+            return saved.getId();
+        });
+        assertThat(bus.awaitDelivery(5_000)).isTrue();
+        return id;
+    }
+
+    private List<EntityChangeEvent> memberEvents(Long id) throws Exception {
+        assertThat(bus.awaitDelivery(5_000)).isTrue();
+        return received.stream()
+                .filter(event -> TableVersions.MEMBER.equals(event.table()) && event.ids().contains(id))
+                .toList();
+    }
+}
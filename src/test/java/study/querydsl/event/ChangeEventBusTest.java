@@ -0,0 +1,87 @@
+package study.querydsl.event;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.event.ChangeEventBus.Change;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChangeEventBusTest {
+
+    @Test
+    public void publishAssignsSequenceInOrder() throws Exception {
+        // given
+        ChangeEventBus bus = new ChangeEventBus(16);
+        List<EntityChangeEvent> received = new CopyOnWriteArrayList<>();
+        bus.subscribe(received::addAll);
+
+        // when - 트랜잭션 두 개가 차례로 커밋
+        bus.publish(List.of(
+                new Change("member", ChangeType.INSERT, List.of(1L), false),
+                new Change("team", ChangeType.UPDATE, List.of(2L), false)));
+        bus.publish(List.of(new Change("member", ChangeType.UPDATE, List.of(1L, 3L), true)));
+        assertThat(bus.awaitDelivery(5_000)).isTrue();
+
+        // then
+        assertThat(received).extracting(EntityChangeEvent::sequence).containsExactly(1L, 2L, 3L);
+        assertThat(received.get(2).ids()).containsExactly(1L, 3L);
+        assertThat(received.get(2).bulk()).isTrue();
+        assertThat(bus.getLastSequence()).isEqualTo(3);
+    }
+
+    /* publish 는 구독자를 기다리지 않고, 한 구독자의 실패가 다른 구독자나 다음 묶음을 막지 않는다. */
+    @Test
+    public void subscribersRunAsyncAndIsolated() throws Exception {
+        // given
+        ChangeEventBus bus = new ChangeEventBus(16);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> slow = new CopyOnWriteArrayList<>();
+        List<Long> healthy = new CopyOnWriteArrayList<>();
+        bus.subscribe(events -> {
+            await(release);
+            events.forEach(event -> slow.add(event.sequence()));
+        });
+        bus.subscribe(events -> {
+            throw new IllegalStateException("broken subscriber");
+        });
+        bus.subscribe(events -> events.forEach(event -> healthy.add(event.sequence())));
+
+        // when - 느린 구독자가 막혀 있어도 publish 는 바로 돌아온다.
+        bus.publish(List.of(new Change("member", ChangeType.INSERT, List.of(1L), false)));
+        bus.publish(List.of(new Change("member", ChangeType.INSERT, List.of(2L), false)));
+
+        // then
+        assertThat(bus.awaitDelivery(200)).isFalse();
+        release.countDown();
+        assertThat(bus.awaitDelivery(5_000)).isTrue();
+        assertThat(slow).containsExactly(1L, 2L);
+        assertThat(healthy).containsExactly(1L, 2L);
+        bus.stop();
+    }
+
+    @Test
+    public void replayFromLastSeenSequence() {
+        ChangeEventBus bus = new ChangeEventBus(4);
+        for (long id = 1; id <= 6; id++) {
+            bus.publish(List.of(new Change("member", ChangeType.INSERT, List.of(id), false)));
+        }
+
+        // 링 버퍼에는 3~6 만 남아 있다.
+        assertThat(bus.replay(2)).extracting(EntityChangeEvent::sequence).containsExactly(3L, 4L, 5L, 6L);
+        assertThat(bus.replay(6)).isEmpty();
+        assertThatThrownBy(() -> bus.replay(1)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
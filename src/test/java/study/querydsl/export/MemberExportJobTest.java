@@ -0,0 +1,151 @@
+package study.querydsl.export;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.codec.MemberTeamBinaryCodec;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.export.ExportManifest.ExportFile;
+import study.querydsl.sql.MemberSqlRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "querydsl.export.parallelism=2",
+        "querydsl.export.row-group-size=3"
+})
+class MemberExportJobTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MemberExportJob exportJob;
+    @Autowired
+    MemberSqlRepository memberSqlRepository;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void exportAllRanges() throws Exception {
+        // worker 는 각자 커넥션으로 읽으므로 커밋된 데이터가 필요하다.
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Long> ids = tx.execute(status -> {
+            Team team = new Team("exportTeam");
+            em.persist(team);
+            List<Long> saved = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Member member = new Member("export" + i, i, i % 2 == 0 ? team : null);
+                em.persist(member);
+                saved.add(member.getId());
+            }
+            return saved;
+        });
+        try {
+            Long total = tx.execute(status -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult());
+
+            ExportManifest manifest = exportJob.export(directory);
+
+            assertThat(Files.exists(directory.resolve("manifest.json"))).isTrue();
+            assertThat(manifest.rows()).isEqualTo(total);
+            long csvRows = 0;
+            long mtcRows = 0;
+            for (ExportFile file : manifest.files()) {
+                Path path = directory.resolve(file.name());
+                assertThat(Files.size(path)).isEqualTo(file.bytes());
+                if (file.format().equals("csv")) {
+                    csvRows += Files.readAllLines(path).size() - 1;   // 헤더 제외
+                } else {
+                    mtcRows += countRowGroups(path);
+                }
+            }
+            assertThat(csvRows).isEqualTo(total);
+            assertThat(mtcRows).isEqualTo(total);
+        } finally {
+            tx.executeWithoutResult(status -> {
+                Team team = null;
+                for (Long id : ids) {
+                    Member member = em.find(Member.class, id);
+                    if (member.getTeam() != null) {
+                        team = member.getTeam();
+                    }
+                    em.remove(member);
+                }
+                if (team != null) {
+                    em.remove(team);
+                }
+            });
+        }
+    }
+
+    /* 빈 문자열 username 은 "" 로, null 은 빈 칸으로 써서 loadCsv 가 둘을 구분해 읽는다 */
+    @Test
+    public void emptyUsernameSurvivesLoadCsv() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Long> ids = tx.execute(status -> {
+            Member empty = new Member("", 9101);
+            Member none = new Member(null, 9102);
+            em.persist(empty);
+            em.persist(none);
+            return List.of(empty.getId(), none.getId());
+        });
+        try {
+            ExportManifest manifest = exportJob.export(directory);
+
+            // 다시 읽은 행은 롤백한다. (원본 + 다시 읽은 행이 나이마다 두 개씩)
+            tx.executeWithoutResult(status -> {
+                status.setRollbackOnly();
+                for (ExportFile file : manifest.files()) {
+                    if (!file.format().equals("csv")) {
+                        continue;
+                    }
+                    try (Reader reader = Files.newBufferedReader(directory.resolve(file.name()))) {
+                        memberSqlRepository.loadCsv(reader);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                em.clear();
+                List<Member> members = em.createQuery(
+                        "select m from Member m where m.age in (9101, 9102) order by m.age", Member.class).getResultList();
+                assertThat(members).extracting(Member::getAge).containsExactly(9101, 9101, 9102, 9102);
+                assertThat(members).extracting(Member::getUsername).containsExactly("", "", null, null);
+            });
+        } finally {
+            tx.executeWithoutResult(status -> ids.forEach(id -> em.remove(em.find(Member.class, id))));
+        }
+    }
+
+    private long countRowGroups(Path file) throws Exception {
+        long rows = 0;
+        try (InputStream in = Files.newInputStream(file); DataInputStream data = new DataInputStream(in)) {
+            while (true) {
+                int length;
+                try {
+                    length = data.readInt();
+                } catch (EOFException e) {
+                    return rows;
+                }
+                byte[] group = data.readNBytes(length);
+                rows += MemberTeamBinaryCodec.decode(new ByteArrayInputStream(group)).content().size();
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package study.querydsl.outbox;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.MemberOutbox;
+import study.querydsl.entity.Team;
+import study.querydsl.event.ChangeType;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QMemberOutbox.memberOutbox;
+
+@SpringBootTest(properties = {
+        "querydsl.outbox.relay.enabled=true",
+        "querydsl.outbox.relay.poll-interval-ms=3600000"
+})
+class MemberOutboxTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MemberOutboxRelay relay;
+    @Autowired
+    CapturingSink sink;
+
+    @TestConfiguration
+    static class SinkConfig {
+        @Bean
+        CapturingSink capturingSink() {
+            return new CapturingSink();
+        }
+    }
+
+    static class CapturingSink implements MemberOutboxSink {
+        final List<MemberOutbox> delivered = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void deliver(List<MemberOutbox> batch) {
+            delivered.addAll(batch);
+        }
+    }
+
+    @Test
+    public void outboxIsWrittenInSameTransaction() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // 커밋 - persist, dirty checking 각각 한 행
+        Long memberId = tx.execute(status -> {
+            Team team = new Team("outboxTeam");
+            Member saved = new Member("outbox1", 10, team);
+            em.persist(team);
+            em.persist(saved);
+            return saved.getId();
+        });
+        tx.executeWithoutResult(status -> em.find(Member.class, memberId).setAge(11));
+
+        // 롤백 - 아무것도 남지 않는다.
+        Long rolledBackId = tx.execute(status -> {
+            Member discarded = new Member("outbox2", 20);
+            em.persist(discarded);
+            em.flush();
+            status.setRollbackOnly();
+            return discarded.getId();
+        });
+
+        List<MemberOutbox> rows = tx.execute(status -> queryFactory
+                .selectFrom(memberOutbox)
+                .where(memberOutbox.memberId.in(memberId, rolledBackId))
+                .orderBy(memberOutbox.id.asc())
+                .fetch());
+        assertThat(rows).extracting(MemberOutbox::getChangeType).containsExactly(ChangeType.INSERT, ChangeType.UPDATE);
+        assertThat(rows).extracting(MemberOutbox::getAge).containsExactly(10, 11);
+        assertThat(rows.get(0).getTeamId()).isNotNull();
+
+        // relay - 전달 후 outbox 에서 지워진다.
+        while (relay.relayBatch() > 0) {
+        }
+        assertThat(sink.delivered).filteredOn(outbox -> memberId.equals(outbox.getMemberId()))
+                .extracting(MemberOutbox::getChangeType)
+                .containsExactly(ChangeType.INSERT, ChangeType.UPDATE);
+        Long remaining = tx.execute(status -> queryFactory
+                .select(memberOutbox.count())
+                .from(memberOutbox)
+                .where(memberOutbox.memberId.eq(memberId))
+                .fetchOne());
+        assertThat(remaining).isZero();
+        assertThat(relay.getDeliveredCount()).isGreaterThanOrEqualTo(2);
+
+        // 정리
+        tx.executeWithoutResult(status -> {
+            Member saved = em.find(Member.class, memberId);
+            Team team = saved.getTeam();
+            em.remove(saved);
+            em.remove(team);
+        });
+        while (relay.relayBatch() > 0) {
+        }
+        assertThat(sink.delivered).filteredOn(outbox -> memberId.equals(outbox.getMemberId()))
+                .extracting(MemberOutbox::getChangeType)
+                .endsWith(ChangeType.DELETE);
+        assertThat(queryFactory.selectFrom(member).where(member.id.eq(memberId)).fetch()).isEmpty();
+    }
+}
@@ -0,0 +1,112 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberAgeStatsDto;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static com.querydsl.jpa.JPAExpressions.select;
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class MemberAnalyticsRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    JPAQueryFactory queryFactory;
+    @Autowired
+    MemberAnalyticsRepository analyticsRepository;
+
+    Member member1, member2, member3, member4, member5;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        member1 = new Member("member1", 10, teamA);
+        member2 = new Member("member2", 20, teamA);
+        member3 = new Member("member3", 30, teamB);
+        member4 = new Member("member4", 40, teamB);
+        member5 = new Member("member5", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+        em.persist(member5);
+        em.persist(new Member("noTeam", 50));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void averageAge() throws Exception {
+        List<MemberAgeStatsDto> result = analyticsRepository.findWithAverageAge();
+
+        // 상관 서브쿼리와 같은 값
+        QMember memberSub = new QMember("memberSub");
+        for (MemberAgeStatsDto row : result) {
+            if (row.getTeamId() == null) {
+                assertThat(row.getTeamAvgAge()).isNull();
+                continue;
+            }
+            Double expected = queryFactory
+                    .select(memberSub.age.avg())
+                    .from(memberSub)
+                    .where(memberSub.team.id.eq(row.getTeamId()))
+                    .fetchOne();
+            assertThat(row.getTeamAvgAge()).isEqualTo(expected);
+        }
+        Double globalAvg = queryFactory.select(member.age.avg()).from(member).fetchOne();
+        assertThat(result).allSatisfy(row -> assertThat(row.getGlobalAvgAge()).isEqualTo(globalAvg));
+        assertThat(result).filteredOn(row -> row.getMemberId().equals(member1.getId()))
+                .singleElement()
+                .satisfies(row -> assertThat(row.getTeamAvgAge()).isEqualTo(15.0));
+    }
+
+    @Test
+    public void oldestPerTeam() throws Exception {
+        List<MemberTeamDto> result = analyticsRepository.findOldestPerTeam();
+
+        QMember memberSub = new QMember("memberSub");
+        List<Long> expected = queryFactory
+                .select(member.id)
+                .from(member)
+                .where(member.team.isNotNull(), member.age.eq(
+                        select(memberSub.age.max())
+                                .from(memberSub)
+                                .where(memberSub.team.eq(member.team))
+                ))
+                .fetch();
+
+        assertThat(result).extracting(MemberTeamDto::getMemberId).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(result).extracting(MemberTeamDto::getMemberId)
+                .contains(member2.getId(), member4.getId(), member5.getId());
+    }
+
+    @Test
+    public void topNPerTeam() throws Exception {
+        List<MemberTeamDto> result = analyticsRepository.findTopNPerTeam(2);
+
+        assertThat(result).filteredOn(row -> row.getTeamId().equals(member3.getTeam().getId()))
+                .extracting(MemberTeamDto::getMemberId)
+                .containsExactly(member4.getId(), member5.getId());
+        assertThat(result).filteredOn(row -> row.getTeamId().equals(member1.getTeam().getId()))
+                .extracting(MemberTeamDto::getMemberId)
+                .containsExactly(member2.getId(), member1.getId());
+    }
+}
@@ -0,0 +1,104 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.cache.TableVersionStatementInspector;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+/* querydsl.search.denormalized-team-name=true : MemberRepositoryImpl 이 team 조인 없이 member.team_name 으로 찾고 정렬한다. */
+@SpringBootTest(properties = "querydsl.search.denormalized-team-name=true")
+@Transactional
+class MemberDenormalizedSearchTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberTeamNameSynchronizer synchronizer;
+    @SpyBean
+    TableVersionStatementInspector inspector;
+
+    @AfterEach
+    public void resetInspector() {
+        reset(inspector);
+    }
+
+    /* denormalized 모드에서만 팀 이름 변경을 구독해서 복사본을 맞춘다. */
+    @Test
+    public void synchronizerSubscribes() throws Exception {
+        assertThat(synchronizer.isSubscribed()).isTrue();
+    }
+
+    @Test
+    public void searchUsesTeamNameCopy() throws Exception {
+        // given
+        Team teamA = new Team("denormA");
+        Team teamB = new Team("denormB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member1 = new Member("denorm1", 10, teamA);
+        Member member2 = new Member("denorm2", 20, teamB);
+        Member member3 = new Member("denorm3", 30, teamA);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        member3.changeTeam(teamB);      // 복사본도 같이 바뀐다.
+        em.flush();
+        em.clear();
+
+        List<String> sql = captureSql();
+
+        // when
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("denormB");
+        List<MemberTeamDto> inTeamB = memberRepository.search(condition);
+
+        MemberSearchCondition all = new MemberSearchCondition();
+        all.setUsernamePrefix("denorm");
+        Page<MemberTeamDto> sorted = memberRepository.searchPageSimple(all,
+                PageRequest.of(0, 10, Sort.by(Sort.Order.desc("teamName"), Sort.Order.asc("username"))));
+
+        // then
+        assertThat(inTeamB).extracting("username").containsExactlyInAnyOrder("denorm2", "denorm3");
+        assertThat(inTeamB).extracting("teamName").containsOnly("denormB");
+        assertThat(sorted.getContent()).extracting("username").containsExactly("denorm2", "denorm3", "denorm1");
+        assertThat(sorted.getContent()).extracting("teamId")
+                .containsExactly(teamB.getId(), teamB.getId(), teamA.getId());
+        assertThat(sql).isNotEmpty();
+        assertThat(sql).noneMatch(statement -> statement.toLowerCase().matches("(?s).*join\\s+team\\b.*"));
+    }
+
+    /* 이 쓰레드에서 나간 SQL (use_sql_comments 주석 제외) */
+    private List<String> captureSql() {
+        Thread caller = Thread.currentThread();
+        List<String> captured = new ArrayList<>();
+        doAnswer(invocation -> {
+            String statement = ((String) invocation.getArgument(0)).replaceAll("(?s)/\\*.*?\\*/", "");
+            if (Thread.currentThread() == caller && statement.toLowerCase().matches("(?s).*from\\s+member\\b.*")) {
+                captured.add(statement);
+            }
+            return invocation.callRealMethod();
+        }).when(inspector).inspect(anyString());
+        return captured;
+    }
+}
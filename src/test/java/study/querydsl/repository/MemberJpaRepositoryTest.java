@@ -1,5 +1,6 @@
 package study.querydsl.repository;
 
+import com.querydsl.core.Tuple;
 import jakarta.persistence.EntityManager;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -11,7 +12,9 @@ import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -112,4 +115,53 @@ class MemberJpaRepositoryTest {
         List<MemberTeamDto> result = memberJpaRepository.search(condition);
         Assertions.assertThat(result).extracting("username").containsExactly("member4");
     }
-}
\ No newline at end of file
+
+    /* /v1 (search, searchStream) 도 username 부분 검색 조건을 건다. */
+    @Test
+    public void searchByUsernamePrefixAndInfix() throws Exception {
+        // given
+        em.persist(new Member("jpaPrefixKim", 10));
+        em.persist(new Member("jpaPrefixLee", 20));
+        em.persist(new Member("otherKimJpa", 30));
+        em.flush();
+
+        MemberSearchCondition prefix = new MemberSearchCondition();
+        prefix.setUsernamePrefix("jpaPrefix");
+        MemberSearchCondition infix = new MemberSearchCondition();
+        infix.setUsernameContains("KimJ");
+
+        // when, then
+        assertThat(memberJpaRepository.search(prefix)).extracting(MemberTeamDto::getUsername)
+                .containsExactlyInAnyOrder("jpaPrefixKim", "jpaPrefixLee");
+        try (Stream<Tuple> rows = memberJpaRepository.searchStream(infix)) {
+            assertThat(rows.map(row -> row.get(1, String.class)).toList()).containsExactly("otherKimJpa");
+        }
+    }
+
+    /* 일괄 조회 - 입력 순서 유지, 영속성 컨텍스트 우선 */
+    @Test
+    public void findAllBatch() throws Exception {
+        Member member1 = new Member("member1", 10);
+        Member member2 = new Member("member2", 20);
+        Member member3 = new Member("member3", 30);
+        Member member4 = new Member("member1", 40);
+        memberJpaRepository.save(member1);
+        memberJpaRepository.save(member2);
+        memberJpaRepository.save(member3);
+        memberJpaRepository.save(member4);
+        em.flush();
+        em.clear();
+
+        Member managed = em.find(Member.class, member2.getId());
+
+        List<Member> byIds = memberJpaRepository.findAllByIds(
+                List.of(member3.getId(), member2.getId(), -1L, member1.getId()));
+        assertThat(byIds).extracting("username").containsExactly("member3", "member2", "member1");
+        assertThat(byIds.get(1)).isSameAs(managed);
+        assertThat(memberJpaRepository.findAllByIds(Arrays.asList(member1.getId(), null)))
+                .extracting("username").containsExactly("member1");
+
+        List<Member> byUsernames = memberJpaRepository.findAllByUsernames(List.of("member3", "nobody", "member1"));
+        assertThat(byUsernames).extracting("age").containsExactly(30, 10, 40);
+    }
+}
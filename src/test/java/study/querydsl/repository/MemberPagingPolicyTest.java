@@ -0,0 +1,66 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.querydsl.repository.MemberPagingPolicy.PagePlan;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+class MemberPagingPolicyTest {
+
+    MemberPagingPolicy policy = new MemberPagingPolicy(100, 1000);
+
+    @Test
+    public void appendsMemberIdTieBreaker() throws Exception {
+        PagePlan plan = policy.plan(PageRequest.of(0, 10, Sort.by(Sort.Order.desc("teamName"), Sort.Order.desc("username"))));
+
+        assertThat(plan.orders()).containsExactly(team.name.desc(), member.username.desc(), member.id.desc());
+        // team 쪽 정렬은 member 인덱스로 못 읽는다.
+        assertThat(policy.isIndexOrdered(Sort.by(Sort.Order.desc("teamName"), Sort.Order.desc("username")))).isFalse();
+    }
+
+    @Test
+    public void recognizesIndexOrder() throws Exception {
+        assertThat(policy.isIndexOrdered(Sort.unsorted())).isTrue();
+        assertThat(policy.isIndexOrdered(Sort.by("username"))).isTrue();
+        assertThat(policy.isIndexOrdered(Sort.by(Sort.Direction.DESC, "age"))).isTrue();
+        assertThat(policy.isIndexOrdered(Sort.by(Sort.Order.asc("username"), Sort.Order.desc("memberId")))).isFalse();
+        assertThat(policy.isIndexOrdered(Sort.by("unknown"))).isFalse();
+    }
+
+    @Test
+    public void deepOffset() throws Exception {
+        // 커서 없이 깊은 offset 은 정렬과 상관없이 막힌다.
+        assertThatThrownBy(() -> policy.plan(PageRequest.of(500, 10, Sort.by("memberId"))))
+                .isInstanceOf(PagingPolicyViolationException.class);
+        assertThatThrownBy(() -> policy.plan(PageRequest.of(500, 10, Sort.by("username"))))
+                .isInstanceOf(PagingPolicyViolationException.class);
+        assertThat(policy.plan(PageRequest.of(100, 10)).keyset()).isFalse();
+    }
+
+    @Test
+    public void cursor() throws Exception {
+        PagePlan plan = policy.plan(PageRequest.of(500, 10, Sort.by(Sort.Direction.DESC, "memberId")), 12345L);
+
+        assertThat(plan.keyset()).isTrue();
+        assertThat(plan.ascending()).isFalse();
+        assertThat(plan.pageable().getOffset()).isZero();     // page 번호는 무시
+        assertThatThrownBy(() -> policy.plan(PageRequest.of(0, 10, Sort.by("username")), 12345L))
+                .isInstanceOf(PagingPolicyViolationException.class);
+    }
+
+    @Test
+    public void denormalizedTeamName() throws Exception {
+        MemberPagingPolicy denormalized = new MemberPagingPolicy(100, 1000, true);
+
+        PagePlan plan = denormalized.plan(PageRequest.of(0, 10, Sort.by("teamName")));
+
+        // team 조인 없이 member.team_name 인덱스로 읽는다.
+        assertThat(plan.orders()).containsExactly(member.teamName.asc(), member.id.asc());
+        assertThat(denormalized.isIndexOrdered(Sort.by("teamName"))).isTrue();
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
@@ -16,9 +17,11 @@ import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -136,6 +139,83 @@ class MemberRepositoryTest {
     }
 
 
+    /* 페이징 정책: 정렬 화이트리스트, 최대 페이지 크기, 깊은 offset */
+    @Test
+    public void searchPagePolicy() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // 화이트리스트에 없는 경로 정렬은 막힌다.
+        assertThatThrownBy(() -> memberRepository.searchPageSimple(condition, PageRequest.of(0, 3, Sort.by("team"))))
+                .isInstanceOf(PagingPolicyViolationException.class);
+
+        // team.name 정렬은 허용
+        Page<MemberTeamDto> byTeam = memberRepository.searchPageComplex(condition,
+                PageRequest.of(0, 3, Sort.by("teamName", "username")));
+        assertThat(byTeam.getContent()).extracting("username").containsExactly("member0", "member1", "member2");
+
+        // 최대 페이지 크기로 잘린다.
+        Page<MemberTeamDto> huge = memberRepository.searchPageSimple(condition, PageRequest.of(0, 1_000_000));
+        assertThat(huge.getSize()).isEqualTo(100);
+        assertThat(huge.getTotalElements()).isEqualTo(5);
+    }
+
+    /* 커서(after) 페이징: 마지막 memberId 를 넘겨서 다음 페이지 */
+    @Test
+    public void searchSliceAfter() throws Exception {
+        Team team = new Team("cursorTeam");
+        em.persist(team);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Member member = new Member("cursor" + i, i, team);
+            em.persist(member);
+            ids.add(member.getId());
+        }
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("cursorTeam");
+
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, null, PageRequest.of(0, 2));
+        Long cursor = first.getContent().get(first.getContent().size() - 1).getMemberId();
+        Slice<MemberTeamDto> second = memberRepository.searchSlice(condition, cursor, PageRequest.of(0, 2));
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(condition,
+                second.getContent().get(1).getMemberId(), PageRequest.of(0, 2));
+
+        assertThat(first.getContent()).extracting("memberId").containsExactly(ids.get(0), ids.get(1));
+        assertThat(second.getContent()).extracting("memberId").containsExactly(ids.get(2), ids.get(3));
+        assertThat(last.getContent()).extracting("memberId").containsExactly(ids.get(4));
+        assertThat(last.hasNext()).isFalse();
+
+        // 커서 없이 깊은 offset 은 400
+        assertThatThrownBy(() -> memberRepository.searchPageSimple(condition, PageRequest.of(10_000, 10)))
+                .isInstanceOf(PagingPolicyViolationException.class);
+    }
+
+    /* 여러 컬럼 정렬 (team + member 경로) + member.id tie-breaker */
+    @Test
+    public void searchPageMultiSort() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 20, teamB));
+        em.persist(new Member("member4", 20, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        Sort sort = Sort.by(Sort.Order.desc("teamName"), Sort.Order.asc("age"));
+
+        Page<MemberTeamDto> first = memberRepository.searchPageComplex(condition, PageRequest.of(0, 3, sort));
+        Page<MemberTeamDto> second = memberRepository.searchPageComplex(condition, PageRequest.of(1, 3, sort));
+
+        // teamB 의 member3, member4 는 age 가 같아서 member_id 로 순서가 정해진다.
+        assertThat(first.getContent()).extracting("username").containsExactly("member3", "member4", "member1");
+        assertThat(second.getContent()).extracting("username").containsExactly("member2");
+    }
 
     /* QuerydslPredicateExecutor<> 사용 */
     @Test
@@ -171,4 +251,26 @@ class MemberRepositoryTest {
         // then
     }
 
-}
\ No newline at end of file
+    @Test
+    public void searchSlice() throws Exception {
+        // given
+        Team team = new Team("sliceTeam");
+        em.persist(team);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("slice" + i, 10 + i, team));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("sliceTeam");
+
+        // when - 5건을 2개씩: 2, 2, 1
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 2, Sort.by("username")));
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(2, 2, Sort.by("username")));
+
+        // then
+        assertThat(first.getContent()).extracting("username").containsExactly("slice0", "slice1");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).extracting("username").containsExactly("slice4");
+        assertThat(last.hasNext()).isFalse();
+    }
+}
@@ -0,0 +1,115 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.cache.TableVersionStatementInspector;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+/*
+MemberPagingPolicy.isIndexOrdered 가 searchPageSimple 이 실제로 만든 SQL 의 실행계획과 맞는지 확인한다.
+    SQL 은 StatementInspector 에서 잡고, 그 SQL 그대로 H2 EXPLAIN 을 돌린다.
+    H2 는 인덱스를 거꾸로 읽어 정렬하지 않으므로 ASC 정렬만 비교한다.
+*/
+@SpringBootTest
+@Transactional
+class MemberSearchPlanTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberPagingPolicy pagingPolicy;
+    @Autowired
+    EntityManager em;
+    @SpyBean
+    TableVersionStatementInspector inspector;
+
+    @AfterEach
+    public void resetInspector() {
+        reset(inspector);
+    }
+
+    @Test
+    public void indexOrderedMatchesPlan() throws Exception {
+        // given
+        Team teamA = new Team("planTeamA");
+        em.persist(teamA);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("plan" + i, i, teamA));
+        }
+        em.flush();
+
+        // when, then
+        assertPlanMatchesPolicy(Sort.by("username"), true);
+        assertPlanMatchesPolicy(Sort.by("age"), true);
+        assertPlanMatchesPolicy(Sort.by("teamName"), false);
+        assertPlanMatchesPolicy(Sort.by(Sort.Order.asc("username"), Sort.Order.desc("memberId")), false);
+    }
+
+    private void assertPlanMatchesPolicy(Sort sort, boolean expected) {
+        assertThat(pagingPolicy.isIndexOrdered(sort)).isEqualTo(expected);
+
+        String sql = contentSql(sort);
+        String plan = explain(sql);
+
+        assertThat(plan.toLowerCase().contains("index sorted"))
+                .as("sort=%s%nsql=%s%nplan=%s", sort, sql, plan)
+                .isEqualTo(expected);
+    }
+
+    /* searchPageSimple 이 이 스레드에서 내보낸 SQL 중 order by 가 있는 content 쿼리 */
+    private String contentSql(Sort sort) {
+        Thread caller = Thread.currentThread();
+        List<String> captured = new ArrayList<>();
+        doAnswer(invocation -> {
+            if (Thread.currentThread() == caller) {
+                captured.add(invocation.getArgument(0));
+            }
+            return invocation.callRealMethod();
+        }).when(inspector).inspect(anyString());
+
+        memberRepository.searchPageSimple(new MemberSearchCondition(), PageRequest.of(0, 3, sort));
+        reset(inspector);
+
+        return captured.stream()
+                .map(sql -> sql.replaceAll("(?s)/\\*.*?\\*/", "").trim())   // use_sql_comments 주석 제거
+                .filter(sql -> sql.toLowerCase().contains("order by"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("content 쿼리를 못 잡았다: " + captured));
+    }
+
+    /* 조건 없는 검색이라 남은 파라미터는 limit/offset 뿐이다. 전부 페이지 크기로 채운다. */
+    private String explain(String sql) {
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                int parameterCount = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameterCount; i++) {
+                    statement.setInt(i, 3);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+    }
+}
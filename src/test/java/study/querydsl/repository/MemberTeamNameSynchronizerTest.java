@@ -0,0 +1,58 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberTeamNameSynchronizerTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberTeamNameSynchronizer synchronizer;
+
+    @Test
+    public void propagateRename() throws Exception {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.flush();
+        assertThat(synchronizer.verify(teamA.getId())).isZero();
+        assertThat(synchronizer.verify(teamB.getId())).isZero();
+
+        // when - 팀 이름만 바꾸면 복사본이 어긋난다.
+        teamA.setName("renamedA");
+        member3.changeTeam(teamA);   // changeTeam 은 바로 맞춘다.
+        em.flush();
+        assertThat(synchronizer.verify(teamA.getId())).isEqualTo(2);
+
+        // then
+        assertThat(synchronizer.propagate(teamA.getId())).isEqualTo(2);
+        assertThat(synchronizer.verify(teamA.getId())).isZero();
+        em.clear();
+        assertThat(em.find(Member.class, member1.getId()).getTeamName()).isEqualTo("renamedA");
+        assertThat(em.find(Member.class, member3.getId()).getTeamName()).isEqualTo("renamedA");
+    }
+
+    /* 기본 설정(denormalized 꺼짐)에서는 ChangeEventBus 를 구독하지 않는다. */
+    @Test
+    public void notSubscribedWhenDenormalizedOff() throws Exception {
+        assertThat(synchronizer.isSubscribed()).isFalse();
+    }
+}
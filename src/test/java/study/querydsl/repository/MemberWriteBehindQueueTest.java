@@ -0,0 +1,145 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+MemberWriteBehindQueue 는 기본으로 꺼져 있으므로 테스트마다 직접 만들고 (@PersistenceContext 는 autowireBean 으로 주입) 끝나면 stop 한다.
+    커밋 수는 트랜잭션 매니저를 감싸서 센다.
+*/
+@SpringBootTest
+class MemberWriteBehindQueueTest {
+
+    @Autowired
+    AutowireCapableBeanFactory beanFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private final AtomicInteger commits = new AtomicInteger();
+    private final List<MemberWriteBehindQueue> queues = new ArrayList<>();
+
+    @AfterEach
+    public void cleanUp() throws Exception {
+        for (MemberWriteBehindQueue queue : queues) {
+            queue.stop();
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                em.createQuery("delete from Member m where m.username like 'wb%'").executeUpdate());
+    }
+
+    @Test
+    public void groupsSubmitsIntoBatches() throws Exception {
+        // given
+        MemberWriteBehindQueue queue = queue(10, 1_000);
+
+        // when
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            futures.add(queue.submit(new Member("wbBatch" + i, i)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(futures).allSatisfy(future -> assertThat(future.join()).isNotNull());
+        assertThat(commits.get()).isEqualTo(3);     // 10 + 10 + 5
+        assertThat(countByPrefix("wbBatch")).isEqualTo(25);
+    }
+
+    /* stop 은 큐에 남은 것까지 쓰고 끝낸다. 그 뒤의 submit 은 거절된다. */
+    @Test
+    public void stopDrainsQueue() throws Exception {
+        MemberWriteBehindQueue queue = queue(100, 60_000);
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(queue.submit(new Member("wbDrain" + i, i)));
+        }
+
+        queue.stop();
+
+        assertThat(futures).allSatisfy(future -> {
+            assertThat(future).isDone();
+            assertThat(future.join()).isNotNull();
+        });
+        assertThat(countByPrefix("wbDrain")).isEqualTo(5);
+        assertThatThrownBy(() -> queue.submit(new Member("wbLate", 0)))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    /* 저장할 수 없는 member 하나는 자기 future 만 실패시킨다. */
+    @Test
+    public void failureIsIsolatedToOneMember() throws Exception {
+        MemberWriteBehindQueue queue = queue(10, 1_000);
+        Team unsaved = new Team("wbUnsavedTeam");   // persist 안 된 팀 -> flush 때 TransientPropertyValueException
+
+        CompletableFuture<Long> good1 = queue.submit(new Member("wbGood1", 1));
+        CompletableFuture<Long> bad = queue.submit(new Member("wbBad", 2, unsaved));
+        CompletableFuture<Long> good2 = queue.submit(new Member("wbGood2", 3));
+
+        assertThat(good1.get(10, TimeUnit.SECONDS)).isNotNull();
+        assertThat(good2.get(10, TimeUnit.SECONDS)).isNotNull();
+        assertThatThrownBy(() -> bad.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+        assertThat(countByPrefix("wbGood")).isEqualTo(2);
+        assertThat(countByPrefix("wbBad")).isZero();
+    }
+
+    private MemberWriteBehindQueue queue(int batchSize, long maxDelayMillis) {
+        MemberWriteBehindQueue queue = new MemberWriteBehindQueue(countingTransactionManager(), 1_000,
+                batchSize, maxDelayMillis, 1_000);
+        beanFactory.autowireBean(queue);
+        queue.start();
+        queues.add(queue);
+        return queue;
+    }
+
+    private PlatformTransactionManager countingTransactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return transactionManager.getTransaction(definition);
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                transactionManager.commit(status);
+                commits.incrementAndGet();
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                transactionManager.rollback(status);
+            }
+        };
+    }
+
+    private long countByPrefix(String prefix) {
+        return transactionTemplate.execute(status -> em
+                .createQuery("select count(m) from Member m where m.username like :prefix", Long.class)
+                .setParameter("prefix", prefix + "%")
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,130 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.cache.TableVersionStatementInspector;
+import study.querydsl.dto.TeamWithMembersDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+/*
+DB 에 다른 테스트의 팀이 남아 있을 수 있으므로 이 테스트가 만든 팀만 골라서 확인한다.
+    SQL 수는 Statistics(전역) 대신 StatementInspector 로 이 쓰레드 것만 센다.
+*/
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TeamRepository teamRepository;
+    @SpyBean
+    TableVersionStatementInspector inspector;
+
+    @AfterEach
+    public void resetInspector() {
+        reset(inspector);
+    }
+
+    @Test
+    public void searchWithMembers() throws Exception {
+        // given - 팀 5개, 팀마다 회원 3명
+        for (int t = 0; t < 5; t++) {
+            Team team = new Team("pagedTeam" + t);
+            em.persist(team);
+            for (int m = 0; m < 3; m++) {
+                em.persist(new Member("team" + t + "_member" + m, 10 + m, team));
+            }
+        }
+        em.flush();
+        em.clear();
+
+        // when - 이름순으로 끝까지 넘기면서 이 테스트의 팀만 모은다.
+        AtomicInteger statements = countStatements();
+        List<TeamWithMembersDto> ours = new ArrayList<>();
+        for (int page = 0; page < 1_000; page++) {
+            statements.set(0);
+            Page<TeamWithMembersDto> result = teamRepository.searchWithMembers(null, PageRequest.of(page, 2, Sort.by("name")));
+
+            // then - 팀 페이지 1번, 회원 1번, count 최대 1번 (팀 수만큼 늘지 않는다)
+            assertThat(statements.get()).isLessThanOrEqualTo(3);
+            result.getContent().stream()
+                    .filter(team -> team.getTeamName().startsWith("pagedTeam"))
+                    .forEach(ours::add);
+            if (!result.hasNext()) {
+                break;
+            }
+        }
+
+        assertThat(ours).extracting(TeamWithMembersDto::getTeamName)
+                .containsExactly("pagedTeam0", "pagedTeam1", "pagedTeam2", "pagedTeam3", "pagedTeam4");
+        assertThat(ours.get(2).getMembers())
+                .extracting(TeamWithMembersDto.MemberItem::getUsername)
+                .containsExactly("team2_member0", "team2_member1", "team2_member2");
+        assertThat(ours).noneMatch(TeamWithMembersDto::isHasMoreMembers);
+    }
+
+    /* 팀마다 membersPerTeam 명까지만 담고, 나머지는 findMembers 로 이어서 읽는다. */
+    @Test
+    public void capsMembersPerTeam() throws Exception {
+        // given
+        Team big = new Team("cappedTeam");
+        em.persist(big);
+        List<Long> ids = new ArrayList<>();
+        for (int m = 0; m < 5; m++) {
+            Member member = new Member("capped" + m, 20 + m, big);
+            em.persist(member);
+            ids.add(member.getId());
+        }
+        em.flush();
+        em.clear();
+
+        // when
+        TeamWithMembersDto team = teamRepository.searchWithMembers("cappedTeam", PageRequest.of(0, 10), 3)
+                .getContent().get(0);
+        List<TeamWithMembersDto.MemberItem> rest = teamRepository.findMembers(team.getTeamId(),
+                team.getMembers().get(2).getMemberId(), 10);
+
+        // then
+        assertThat(team.getMembers()).extracting(TeamWithMembersDto.MemberItem::getMemberId)
+                .containsExactlyElementsOf(ids.subList(0, 3));
+        assertThat(team.isHasMoreMembers()).isTrue();
+        assertThat(rest).extracting(TeamWithMembersDto.MemberItem::getMemberId)
+                .containsExactlyElementsOf(ids.subList(3, 5));
+
+        TeamWithMembersDto exact = teamRepository.searchWithMembers("cappedTeam", PageRequest.of(0, 10), 5)
+                .getContent().get(0);
+        assertThat(exact.getMembers()).hasSize(5);
+        assertThat(exact.isHasMoreMembers()).isFalse();
+    }
+
+    private AtomicInteger countStatements() {
+        Thread caller = Thread.currentThread();
+        AtomicInteger statements = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (Thread.currentThread() == caller) {
+                statements.incrementAndGet();
+            }
+            return invocation.callRealMethod();
+        }).when(inspector).inspect(anyString());
+        return statements;
+    }
+}
@@ -0,0 +1,65 @@
+package study.querydsl.repository.shard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedMemberRepositoryTest {
+
+    @Test
+    public void mergePage() throws Exception {
+        // given - 샤드별로 이미 age desc 로 정렬된 결과
+        List<MemberTeamDto> shard0 = List.of(dto(4L, "member4", 40), dto(2L, "member2", 20));
+        List<MemberTeamDto> shard1 = List.of(dto(3L, "member3", 30), dto(1L, "member1", 10));
+
+        // when - 두번째 페이지(size 2)
+        List<MemberTeamDto> result = ShardedMemberRepository.merge(
+                List.of(shard0, shard1), Sort.by(Sort.Direction.DESC, "age"), 2, 2);
+
+        // then
+        assertThat(result).extracting("username").containsExactly("member2", "member1");
+    }
+
+    @Test
+    public void mergeTieBreakById() throws Exception {
+        List<MemberTeamDto> shard0 = List.of(dto(2L, "member", 10));
+        List<MemberTeamDto> shard1 = List.of(dto(1L, "member", 10));
+
+        List<MemberTeamDto> result = ShardedMemberRepository.merge(
+                List.of(shard0, shard1), Sort.by("username"), 0, 10);
+
+        assertThat(result).extracting("memberId").containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void mergeDescKeepsNullsFirst() throws Exception {
+        // given - 샤드 쿼리는 NULLS FIRST 로 정렬해서 돌려준다. (teamName desc)
+        List<MemberTeamDto> shard0 = List.of(team(1L, null), team(3L, "teamB"), team(5L, "teamA"));
+        List<MemberTeamDto> shard1 = List.of(team(2L, null), team(4L, "teamC"), team(6L, "teamA"));
+
+        List<MemberTeamDto> result = ShardedMemberRepository.merge(
+                List.of(shard0, shard1), Sort.by(Sort.Direction.DESC, "teamName"), 0, 10);
+
+        assertThat(result).extracting("memberId").containsExactly(1L, 2L, 4L, 3L, 5L, 6L);
+    }
+
+    @Test
+    public void routeIsStable() throws Exception {
+        MemberShardRouter router = new MemberShardRouter(4);
+        for (long id = 1; id < 1000; id++) {
+            assertThat(router.shardOf(id)).isBetween(0, 3).isEqualTo(router.shardOf(id));
+        }
+    }
+
+    private MemberTeamDto team(Long memberId, String teamName) {
+        return new MemberTeamDto(memberId, "member" + memberId, 10, teamName == null ? null : memberId, teamName);
+    }
+
+    private MemberTeamDto dto(Long memberId, String username, int age) {
+        return new MemberTeamDto(memberId, username, age, null, null);
+    }
+}
@@ -0,0 +1,145 @@
+package study.querydsl.repository.shard;
+
+import com.querydsl.core.Tuple;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/* H2 샤드 두 개에 실제로 나눠 넣고 scatter / gather. 스레드 1개로 띄워서 작업이 풀 안에서 서로 기다리지 않는지도 같이 본다. */
+@SpringBootTest(properties = {
+        "querydsl.shard.count=2",
+        "querydsl.shard.threads=1",
+        "querydsl.shard.url=jdbc:h2:mem:shardtest%d;DB_CLOSE_DELAY=-1"
+})
+class ShardedMemberSearchTest {
+
+    @Autowired
+    ShardedMemberRepository shardedMemberRepository;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Test
+    public void scatterGatherAcrossShards() throws Exception {
+        // given
+        Long teamA = shardedMemberRepository.saveTeam("shardTeamA");
+        Long teamB = shardedMemberRepository.saveTeam("shardTeamB");
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Long teamId = i % 5 == 0 ? null : (i % 2 == 0 ? teamA : teamB);
+            ids.add(shardedMemberRepository.saveMember("shard" + i, 1000 + i, teamId));
+        }
+
+        MemberShardRouter router = new MemberShardRouter(2);
+        Set<Integer> usedShards = ids.stream().map(router::shardOf).collect(Collectors.toSet());
+        assertThat(usedShards).containsExactlyInAnyOrder(0, 1);
+        assertThat(shardedMemberRepository.findById(ids.get(3))).get()
+                .extracting("username").isEqualTo("shard3");
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(1000);
+        condition.setAgeLoe(1019);
+
+        // when - teamName desc 로 3건씩 끝까지 넘긴다
+        Sort sort = Sort.by(Sort.Direction.DESC, "teamName");
+        List<MemberTeamDto> paged = new ArrayList<>();
+        long total = -1;
+        for (int page = 0; page < 7; page++) {
+            Page<MemberTeamDto> result = shardedMemberRepository.searchPageSimple(condition, PageRequest.of(page, 3, sort));
+            total = result.getTotalElements();
+            paged.addAll(result.getContent());
+        }
+
+        // then - null 팀이 먼저, 그다음 팀 이름 내림차순, 동점은 member id 순
+        List<MemberTeamDto> all = shardedMemberRepository.search(condition);
+        List<MemberTeamDto> expected = new ArrayList<>(all);
+        expected.sort(Comparator.comparing(MemberTeamDto::getTeamName,
+                        Comparator.nullsFirst(Comparator.<String>reverseOrder()))
+                .thenComparing(MemberTeamDto::getMemberId));
+
+        assertThat(total).isEqualTo(20);
+        assertThat(all).hasSize(20);
+        assertThat(paged).extracting("memberId")
+                .containsExactlyElementsOf(expected.stream().map(MemberTeamDto::getMemberId).toList());
+        assertThat(paged.subList(0, 4)).extracting("teamName").containsOnlyNulls();
+
+        Slice<MemberTeamDto> lastSlice = shardedMemberRepository.searchSlice(condition, PageRequest.of(6, 3, sort));
+        assertThat(lastSlice.getContent()).hasSize(2);
+        assertThat(lastSlice.hasNext()).isFalse();
+    }
+
+    /* querydsl.shard.count 가 있으면 MemberRepository / MemberJpaRepository 의 검색(= 모든 엔드포인트)이 샤드로 간다. */
+    @Test
+    public void repositoriesSearchShards() throws Exception {
+        // given - 샤드에만 있는 회원
+        Long teamId = shardedMemberRepository.saveTeam("routedTeam");
+        for (int i = 0; i < 6; i++) {
+            shardedMemberRepository.saveMember("routed" + i, 10 + i, teamId);
+        }
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("routed");
+
+        // when
+        Page<MemberTeamDto> page = memberRepository.searchPageSimple(condition, PageRequest.of(0, 4, Sort.by("username")));
+        List<MemberTeamDto> v1 = memberJpaRepository.search(condition);
+        List<String> streamed;
+        try (Stream<Tuple> rows = memberJpaRepository.searchStream(condition)) {
+            streamed = rows.map(row -> row.get(member.username)).toList();
+        }
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(6);
+        assertThat(page.getContent()).extracting(MemberTeamDto::getUsername)
+                .containsExactly("routed0", "routed1", "routed2", "routed3");
+        assertThat(v1).hasSize(6).allSatisfy(dto -> assertThat(dto.getTeamName()).isEqualTo("routedTeam"));
+        assertThat(streamed).containsExactlyInAnyOrder("routed0", "routed1", "routed2", "routed3", "routed4", "routed5");
+    }
+
+    /*
+    saveTeam 이 일부 샤드에만 쓰고 실패한 상태 (샤드 0 에만 있음) 를 만들어서
+        - 빠진 샤드의 회원은 팀 조인 결과가 비고
+        - 같은 teamId 로 replicateTeam 을 다시 부르거나 reconcileTeams 로 맞출 수 있는지 본다. (여러 번 해도 같다)
+    */
+    @Test
+    public void partialTeamReplicationIsRepairable() throws Exception {
+        // given
+        Long teamId = 900_000L;
+        shardedMemberRepository.mergeTeam(0, teamId, "partialTeam");
+        assertThat(shardedMemberRepository.teams(1)).doesNotContainKey(teamId);
+
+        // when
+        int repaired = shardedMemberRepository.reconcileTeams();
+
+        // then
+        assertThat(repaired).isGreaterThanOrEqualTo(1);
+        assertThat(shardedMemberRepository.teams(1)).containsEntry(teamId, "partialTeam");
+        assertThat(shardedMemberRepository.reconcileTeams()).isZero();
+
+        shardedMemberRepository.replicateTeam(teamId, "partialTeam");     // 재시도해도 행이 늘지 않는다
+        for (int shard = 0; shard < 2; shard++) {
+            assertThat(shardedMemberRepository.teams(shard)).containsEntry(teamId, "partialTeam");
+        }
+        Long savedTeam = shardedMemberRepository.saveTeam("replicatedTeam");
+        assertThat(shardedMemberRepository.teams(0)).containsEntry(savedTeam, "replicatedTeam");
+        assertThat(shardedMemberRepository.teams(1)).containsEntry(savedTeam, "replicatedTeam");
+    }
+}
@@ -0,0 +1,87 @@
+package study.querydsl.search;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberConditionFilterTest {
+
+    private static final String[] USERNAMES = {"kim", "kimchi", "lee", "leek", "park", "a_b", "a%b", "Kim", ""};
+    private static final String[] TEAM_NAMES = {"teamA", "teamB", "TeamA"};
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+
+    /* 무작위 조건 여러 개에 대해 SQL 검색 결과와 메모리 필터 결과가 같아야 한다. */
+    @Test
+    public void matchesSql() throws Exception {
+        Random random = new Random(42);
+        Team[] teams = new Team[TEAM_NAMES.length];
+        for (int i = 0; i < teams.length; i++) {
+            teams[i] = new Team(TEAM_NAMES[i]);
+            em.persist(teams[i]);
+        }
+        for (int i = 0; i < 80; i++) {
+            String username = USERNAMES[random.nextInt(USERNAMES.length)] + (random.nextBoolean() ? "" : i);
+            Team team = random.nextInt(4) == 0 ? null : teams[random.nextInt(teams.length)];
+            em.persist(new Member(username, random.nextInt(60), team));
+        }
+        em.flush();
+        em.clear();
+
+        List<MemberTeamDto> all = memberRepository.search(new MemberSearchCondition());
+
+        for (int i = 0; i < 300; i++) {
+            MemberSearchCondition condition = randomCondition(random);
+
+            List<Long> expected = memberRepository.search(condition).stream().map(MemberTeamDto::getMemberId).sorted().toList();
+            List<Long> actual = all.stream()
+                    .filter(MemberConditionFilter.compile(condition).asPredicate())
+                    .map(MemberTeamDto::getMemberId)
+                    .sorted()
+                    .toList();
+
+            assertThat(actual).as(condition.toString()).isEqualTo(expected);
+        }
+    }
+
+    private MemberSearchCondition randomCondition(Random random) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if (random.nextInt(3) == 0) {
+            condition.setUsername(USERNAMES[random.nextInt(USERNAMES.length)] + (random.nextBoolean() ? "" : random.nextInt(80)));
+        }
+        if (random.nextInt(3) == 0) {
+            condition.setTeamName(random.nextInt(5) == 0 ? " " : TEAM_NAMES[random.nextInt(TEAM_NAMES.length)]);
+        }
+        if (random.nextInt(2) == 0) {
+            condition.setAgeGoe(random.nextInt(70) - 5);
+        }
+        if (random.nextInt(2) == 0) {
+            condition.setAgeLoe(random.nextInt(70) - 5);
+        }
+        if (random.nextInt(3) == 0) {
+            condition.setUsernamePrefix(USERNAMES[random.nextInt(USERNAMES.length)]);
+        }
+        if (random.nextInt(3) == 0) {
+            String username = USERNAMES[random.nextInt(USERNAMES.length)];
+            condition.setUsernameContains(username.length() > 1 ? username.substring(1) : username);
+        }
+        return condition;
+    }
+}
@@ -0,0 +1,182 @@
+package study.querydsl.search;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class UsernameIndexTest {
+
+    private static final int LIMIT = 1_000;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    UsernameIndex usernameIndex;
+    @Autowired
+    MemberRepository memberRepository;
+
+    /* 다른 테스트의 벌크 DML(UNRESOLVED) 로 예약된 rebuild 가 끝날 때까지 기다린다. */
+    @BeforeEach
+    public void awaitIndex() throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (usernameIndex.isStale() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void prefixAndInfix() throws Exception {
+        // given
+        Member kim = new Member("kimchi", 10);
+        Member kimbap = new Member("kimbap", 20);
+        Member bob = new Member("bobkim", 30);
+        em.persist(kim);
+        em.persist(kimbap);
+        em.persist(bob);
+        em.flush();     // @PostPersist -> 인덱스 반영
+
+        // then
+        assertThat(usernameIndex.findByPrefix("kim", LIMIT)).containsExactly(kim.getId(), kimbap.getId());
+        assertThat(usernameIndex.findByInfix("kim", LIMIT)).containsExactly(kim.getId(), kimbap.getId(), bob.getId());
+        assertThat(usernameIndex.findByInfix("bap", LIMIT)).containsExactly(kimbap.getId());
+        assertThat(usernameIndex.findByInfix("mb", LIMIT)).containsExactly(kimbap.getId());
+        assertThat(usernameIndex.findByInfix("xyz", LIMIT)).isEmpty();
+    }
+
+    /* 커밋 전 이름 변경: 인덱스에는 옛 이름도 남지만 검색 결과는 DB 의 username 으로 걸러진다. */
+    @Test
+    public void renameBeforeCommit() throws Exception {
+        Member member = new Member("member1", 10);
+        em.persist(member);
+        em.flush();
+
+        member.setUsername("renamed1");
+        em.flush();     // @PostUpdate
+
+        assertThat(usernameIndex.findByPrefix("rename", LIMIT)).contains(member.getId());
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("member1");
+        assertThat(memberRepository.search(condition)).extracting("memberId").doesNotContain(member.getId());
+    }
+
+    @Test
+    public void commitReplacesCommittedUsername() throws Exception {
+        UsernameIndex index = emptyIndex();
+        index.commit(Map.of(1L, "alpha"));
+
+        index.provisional(1L, "beta");
+        // 커밋 전에는 둘 다 찾힌다. (다른 트랜잭션에서 alpha 로 찾던 행이 사라지지 않는다)
+        assertThat(index.findByPrefix("alpha", LIMIT)).containsExactly(1L);
+        assertThat(index.findByPrefix("beta", LIMIT)).containsExactly(1L);
+
+        index.commit(Map.of(1L, "beta"));
+
+        assertThat(index.findByPrefix("alpha", LIMIT)).isEmpty();
+        assertThat(index.findByPrefix("beta", LIMIT)).containsExactly(1L);
+        assertThat(index.findByInfix("lph", LIMIT)).isEmpty();
+    }
+
+    @Test
+    public void rollbackKeepsCommittedUsername() throws Exception {
+        UsernameIndex index = emptyIndex();
+        index.commit(Map.of(1L, "alpha"));
+
+        index.provisional(1L, "alphabet");
+        index.rollback(List.of(1L));
+
+        assertThat(index.findByPrefix("alpha", LIMIT)).containsExactly(1L);
+        assertThat(index.findByInfix("bet", LIMIT)).isEmpty();
+
+        // 삭제도 커밋 전에는 남겨 둔다.
+        Map<Long, String> deleted = new HashMap<>();
+        deleted.put(1L, null);
+        index.commit(deleted);
+        assertThat(index.findByPrefix("alpha", LIMIT)).isEmpty();
+    }
+
+    /* rebuild 가 DB 를 읽는 동안 커밋된 변경은 스냅샷으로 바꾼 뒤에도 남아야 한다. */
+    @Test
+    public void commitsDuringRebuildSurvive() throws Exception {
+        UsernameIndex index = emptyIndex();
+        index.provisional(3L, "pending");
+
+        long through = index.beginRebuild();
+        index.commit(Map.of(2L, "late"));                   // 스냅샷에는 없다.
+        index.finishRebuild(through, Map.of(1L, "early"));
+
+        assertThat(index.findByPrefix("early", LIMIT)).containsExactly(1L);
+        assertThat(index.findByPrefix("late", LIMIT)).containsExactly(2L);
+        assertThat(index.findByPrefix("pending", LIMIT)).containsExactly(3L);
+    }
+
+    /* limit 을 넘으면 모으다가 멈추고 null (호출하는 쪽은 like 로 찾는다) */
+    @Test
+    public void nullWhenOverLimit() throws Exception {
+        UsernameIndex index = emptyIndex();
+        Map<Long, String> names = new HashMap<>();
+        for (long id = 1; id <= 5; id++) {
+            names.put(id, "limit" + id);
+        }
+        index.commit(names);
+
+        assertThat(index.findByPrefix("limit", 5)).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(index.findByPrefix("limit", 4)).isNull();
+        assertThat(index.findByInfix("imi", 5)).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(index.findByInfix("imi", 4)).isNull();
+        assertThat(index.findByInfix("it", 4)).isNull();          // 3글자 미만 (전체를 훑는 경로)
+        assertThat(index.findByInfix("t3", 4)).containsExactly(3L);
+    }
+
+    @Test
+    public void staleUntilRebuilt() throws Exception {
+        UsernameIndex index = new UsernameIndex(null, null);
+        assertThat(index.findByPrefix("a", LIMIT)).isNull();       // 첫 rebuild 전
+
+        index.finishRebuild(index.beginRebuild(), Map.of());
+        assertThat(index.findByPrefix("a", LIMIT)).isEmpty();
+    }
+
+    private UsernameIndex emptyIndex() {
+        UsernameIndex index = new UsernameIndex(null, null);
+        index.finishRebuild(index.beginRebuild(), Map.of());
+        return index;
+    }
+
+    @Test
+    public void searchWithPrefix() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("alpha1", 10, teamA));
+        em.persist(new Member("alpha2", 20, teamA));
+        em.persist(new Member("beta1", 30, teamA));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("alp");
+        List<MemberTeamDto> byPrefix = memberRepository.search(condition);
+
+        condition = new MemberSearchCondition();
+        condition.setUsernameContains("ta1");
+        List<MemberTeamDto> byInfix = memberRepository.search(condition);
+
+        assertThat(byPrefix).extracting("username").containsExactlyInAnyOrder("alpha1", "alpha2");
+        assertThat(byInfix).extracting("username").containsExactly("beta1");
+    }
+}
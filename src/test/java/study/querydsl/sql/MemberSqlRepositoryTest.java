@@ -0,0 +1,140 @@
+package study.querydsl.sql;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberSqlRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberSqlRepository memberSqlRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void insertAll() throws Exception {
+        Team team = new Team("sqlTeam");
+        em.persist(team);
+
+        List<Long> ids = memberSqlRepository.insertAll(List.of(
+                new MemberRow("sql1", 10, team.getId()),
+                new MemberRow("sql2", 20, null)));
+        em.clear();
+
+        Member sql1 = em.find(Member.class, ids.get(0));
+        assertThat(sql1.getUsername()).isEqualTo("sql1");
+        assertThat(sql1.getTeam().getId()).isEqualTo(team.getId());
+        assertThat(sql1.getTeamName()).isEqualTo("sqlTeam");
+        assertThat(em.find(Member.class, ids.get(1)).getTeam()).isNull();
+    }
+
+    @Test
+    public void upsertAll() throws Exception {
+        Member existing = new Member("upsert1", 10);
+        em.persist(existing);
+
+        long merged = memberSqlRepository.upsertAll(List.of(
+                new MemberRow("upsert1", 11, null),
+                new MemberRow("upsert2", 20, null)));
+        em.clear();
+
+        assertThat(merged).isEqualTo(2);
+        assertThat(em.find(Member.class, existing.getId()).getAge()).isEqualTo(11);   // id 는 그대로
+        assertThat(em.createQuery("select m from Member m where m.username = 'upsert2'", Member.class)
+                .getResultList()).hasSize(1);
+    }
+
+    @Test
+    public void loadCsv() throws Exception {
+        String csv = """
+                username,age,teamId
+                csv1,10,
+                csv2,20,
+                """;
+
+        long loaded = memberSqlRepository.loadCsv(new StringReader(csv));
+
+        assertThat(loaded).isEqualTo(2);
+        assertThat(em.createQuery("select count(m) from Member m where m.username like 'csv%'", Long.class)
+                .getSingleResult()).isEqualTo(2);
+    }
+
+    /* 같은 새 username 을 동시에 upsert 해도 한 행만 생긴다. (각자 커밋하므로 트랜잭션 밖에서 돌리고 직접 지운다) */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void concurrentUpsertsDoNotDuplicate() throws Exception {
+        int threads = 4;
+        int rounds = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < rounds; round++) {
+                String username = "upsertRace" + round;
+                CyclicBarrier start = new CyclicBarrier(threads);
+                List<Future<Long>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int age = t;
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return memberSqlRepository.upsertAll(List.of(new MemberRow(username, age, null)));
+                    }));
+                }
+                for (Future<Long> result : results) {
+                    assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+                }
+
+                assertThat(transactionTemplate.execute(status -> em
+                        .createQuery("select count(m) from Member m where m.username = :username", Long.class)
+                        .setParameter("username", username)
+                        .getSingleResult())).isEqualTo(1);
+            }
+        } finally {
+            executor.shutdownNow();
+            transactionTemplate.executeWithoutResult(status ->
+                    em.createQuery("delete from Member m where m.username like 'upsertRace%'").executeUpdate());
+        }
+    }
+
+    /* MemberExportJob 이 쓰는 형식: memberId,username,age,teamId,teamName 헤더, 따옴표로 감싼 값 */
+    @Test
+    public void loadCsvReadsExportFormat() throws Exception {
+        Team team = new Team("csv, \"quoted\" team");
+        em.persist(team);
+        em.flush();
+        String csv = "memberId,username,age,teamId,teamName\r\n"
+                + "1,\"csvQ, comma\",10," + team.getId() + ",\"csv, \"\"quoted\"\" team\"\r\n"
+                + "2,\"csvQ \"\"quote\"\"\",20,,\r\n"
+                + "3,\"csvQ\nnewline\",30,,\n";
+
+        long loaded = memberSqlRepository.loadCsv(new StringReader(csv));
+        em.clear();
+
+        assertThat(loaded).isEqualTo(3);
+        List<Member> members = em.createQuery(
+                "select m from Member m where m.username like 'csvQ%' order by m.age", Member.class).getResultList();
+        assertThat(members).extracting(Member::getUsername)
+                .containsExactly("csvQ, comma", "csvQ \"quote\"", "csvQ\nnewline");
+        assertThat(members.get(0).getTeamName()).isEqualTo("csv, \"quoted\" team");
+        assertThat(members.get(1).getTeamName()).isNull();
+    }
+}